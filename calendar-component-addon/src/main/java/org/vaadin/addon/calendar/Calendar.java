@@ -21,26 +21,30 @@ import static java.time.temporal.TemporalAdjusters.firstDayOfMonth;
 import static java.time.temporal.TemporalAdjusters.lastDayOfMonth;
 
 import java.lang.reflect.Method;
-import java.text.DateFormatSymbols;
-import java.text.SimpleDateFormat;
 import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.Month;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
-import java.time.format.FormatStyle;
 import java.time.temporal.ChronoField;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.WeekFields;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
@@ -48,11 +52,20 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.jsoup.nodes.Attributes;
 import org.jsoup.nodes.Element;
+import org.vaadin.addon.calendar.client.CalendarClientRpc;
 import org.vaadin.addon.calendar.client.CalendarEventId;
 import org.vaadin.addon.calendar.client.CalendarServerRpc;
 import org.vaadin.addon.calendar.client.CalendarState;
@@ -67,15 +80,19 @@ import org.vaadin.addon.calendar.handler.BasicItemMoveHandler;
 import org.vaadin.addon.calendar.handler.BasicItemResizeHandler;
 import org.vaadin.addon.calendar.handler.BasicWeekClickHandler;
 import org.vaadin.addon.calendar.item.BasicItemProvider;
+import org.vaadin.addon.calendar.item.CalendarAsyncItemProvider;
 import org.vaadin.addon.calendar.item.CalendarItem;
 import org.vaadin.addon.calendar.item.CalendarItemProvider;
 import org.vaadin.addon.calendar.item.EditableCalendarItem;
+import org.vaadin.addon.calendar.item.LiveItemProvider;
+import org.vaadin.addon.calendar.ui.CalendarActionBatchHandler;
 import org.vaadin.addon.calendar.ui.CalendarComponentEvent;
 import org.vaadin.addon.calendar.ui.CalendarComponentEvents;
 import org.vaadin.addon.calendar.ui.CalendarDateRange;
 import org.vaadin.addon.calendar.ui.CalendarTargetDetails;
 import org.vaadin.addon.calendar.ui.WeeklyCaptionProvider;
 
+import com.vaadin.data.ValueProvider;
 import com.vaadin.event.Action;
 import com.vaadin.event.Action.Handler;
 import com.vaadin.event.SerializableEventListener;
@@ -83,9 +100,11 @@ import com.vaadin.event.dd.DropHandler;
 import com.vaadin.event.dd.DropTarget;
 import com.vaadin.event.dd.TargetDetails;
 import com.vaadin.server.KeyMapper;
+import com.vaadin.server.VaadinSession;
 import com.vaadin.shared.Registration;
 import com.vaadin.shared.ui.ContentMode;
 import com.vaadin.ui.AbstractComponent;
+import com.vaadin.ui.UI;
 import com.vaadin.ui.declarative.DesignAttributeHandler;
 import com.vaadin.ui.declarative.DesignContext;
 
@@ -152,6 +171,66 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      */
     protected List<? extends CalendarItem> items;
 
+    /**
+     * The query key of the current items. Items are only re-queried if the
+     * key or the item set of the provider has changed.
+     */
+    private List<Object> itemsQueryKey;
+
+    /**
+     * True if the item provider has signaled a change since the last query.
+     */
+    private boolean itemSetChanged = true;
+
+    /**
+     * The subscription of the shown range while attached to a
+     * {@link LiveItemProvider}.
+     */
+    private LiveItemProvider<ITEM>.Subscription itemSubscription;
+
+    /**
+     * Collects the item changes of background threads, null to apply each
+     * change on its own.
+     */
+    private transient CalendarUpdateScheduler updateScheduler;
+
+    /**
+     * The item changes of background threads which were not applied yet.
+     */
+    private final Queue<CalendarItemProvider.ItemSetChangedEvent> pendingItemChanges = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Send only the changed items to the client if the visible range has not
+     * changed.
+     */
+    private boolean incrementalItemUpdates = false;
+
+    /**
+     * The current items by the index which was sent to the client.
+     */
+    private Map<Integer, CalendarItem> itemsByIndex = new HashMap<>();
+
+    /**
+     * The state items which were sent to the client by their index. Only used
+     * for incremental item updates.
+     */
+    private Map<Integer, CalendarState.Item> sentItems;
+
+    /**
+     * Provides the keys which identify items across queries. By default,
+     * items are identified by their instance.
+     */
+    private ValueProvider<ITEM, Object> itemKeyProvider;
+
+    /**
+     * The stable indexes of the current items by their key.
+     */
+    private Map<Object, Integer> itemIndexes = new IdentityHashMap<>();
+
+    /**
+     * The next unused stable item index.
+     */
+    private int nextItemIndex = 0;
 
     /** Date format that will be used in the UIDL for dates. */
     private final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern(DateConstants.DATE_FORMAT_PATTERN);
@@ -163,7 +242,9 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     private DateTimeFormatter timeFormatter;
 
     /** Caption format provuder for the weekly view */
-    private WeeklyCaptionProvider weeklyCaptionFormatProvider = date -> DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(getLocale()).format(date);
+    private final WeeklyCaptionProvider defaultCaptionFormatProvider = date -> CalendarLocaleResources.getDateCaptionFormatter(getLocale()).format(date);
+
+    private WeeklyCaptionProvider weeklyCaptionFormatProvider = defaultCaptionFormatProvider;
 
     /** Map from event ids to event handlers */
     private final Map<String, Registration> handlers;
@@ -227,15 +308,117 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
     /**
      * A map with blocked timeslots.<br>
-     *     Contains a set with timestamp of starttimes.
+     *     Contains the slots of each style as bitmask, bit 0 is the half
+     *     hour starting at midnight.
      */
-    private final Map<LocalDate, Set<CalendarState.SlotStyle>> styledTimes = new HashMap<>();
+    private final Map<LocalDate, Map<String, Long>> styledTimes = new HashMap<>();
+
+    /**
+     * The blocked timeslots which recur on each day of the week.
+     */
+    private final Map<DayOfWeek, Map<String, Long>> weekdayStyledTimes = new EnumMap<>(DayOfWeek.class);
 
     /**
      * Initial date for all blocked times
      */
     private final LocalDate allOverDate = LocalDate.ofEpochDay(0);
 
+    /**
+     * The time blocks as comparable values, part of the key of the days.
+     */
+    private transient List<Object> timeBlocksKey;
+
+    /**
+     * The key of the last days, to reuse them without a cache lookup.
+     */
+    private transient List<Object> daysKey;
+    private transient List<CalendarState.Day> cachedDays;
+
+    /**
+     * Number of weeks which are rendered at once in the virtualized view.
+     */
+    private static final int VIRTUALIZED_VIEW_WEEKS = 6;
+
+    /**
+     * Render long date ranges as a scrollable window of weeks.
+     */
+    private boolean virtualizedView = false;
+
+    /**
+     * The first day of the rendered window in the virtualized view. Null for
+     * the start of the date range.
+     */
+    private ZonedDateTime windowStart = null;
+
+    /**
+     * Minutes of the day which are queried if the client has not reported its
+     * visible time of the day yet.
+     */
+    private static final int LAZY_DEFAULT_WINDOW_MINUTES = 8 * 60;
+
+    /**
+     * Query only the visible time of the day in the weekly view.
+     */
+    private boolean lazyItemLoading = false;
+
+    /**
+     * Minutes which are queried before and after the visible time of the day.
+     */
+    private int lazyPrefetchMinutes = 120;
+
+    /**
+     * The first and last minute of the day which are visible on the client.
+     * -1 if not reported yet.
+     */
+    private int visibleFromMinute = -1;
+    private int visibleToMinute = -1;
+
+    /**
+     * The running query of an async item provider.
+     */
+    private transient CompletableFuture<List<ITEM>> asyncQuery;
+
+    /**
+     * The loaded items of an async item provider which are not shown yet.
+     */
+    private List<ITEM> asyncItems;
+
+    /**
+     * The key of the running or loaded query of an async item provider.
+     */
+    private List<Object> asyncItemsKey;
+
+    /**
+     * Query the actions when the context menu is opened instead of sending
+     * them for each slot.
+     */
+    private boolean lazyActions = false;
+
+    /**
+     * Send each action once with the slots it applies to.
+     */
+    private boolean compactActions = false;
+
+    /**
+     * Send the descriptions of the items when their tooltip is shown.
+     */
+    private boolean lazyDescriptions = false;
+
+    /**
+     * Send dates as wall clock minutes instead of formatted strings.
+     */
+    private boolean numericDates = false;
+
+    /**
+     * Send the strings of the items once in a table of the state.
+     */
+    private boolean itemStringTable = false;
+
+    /**
+     * The indexes of the strings in the table of the state.
+     */
+    private Map<String, Integer> itemStrings;
+
     /**
      * Returns the logger for the calendar
      */
@@ -332,7 +515,19 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
         getState().format24H = TimeFormat.Format24H == getTimeFormat();
         setupDaysAndActions();
-        setupCalendarItems();
+        setupCalendarItems(initial);
+    }
+
+    /**
+     * Forces the calendar to query its items from the item provider on the
+     * next repaint. Only needed if the items have changed without an
+     * {@link CalendarItemProvider.ItemSetChangedEvent}. A
+     * {@link CalendarAsyncItemProvider} is not queried again on each repaint,
+     * so call this if such a provider does not fire change events.
+     */
+    public void refreshItems() {
+        itemSetChanged = true;
+        markAsDirty();
     }
 
     /**
@@ -396,6 +591,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         date = date.withZoneSameLocal(getZoneId()).with(LocalTime.MIN);
 
         startDate = date;
+        windowStart = null;
 
         markAsDirty();
     }
@@ -434,6 +630,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         if (startDate != null && startDate.isAfter(date)) {
 
             startDate = date;
+            windowStart = null;
             markAsDirty();
 
         } else
@@ -442,6 +639,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         if(endDate == null || !endDate.equals(date))
          {
             endDate = date;
+            windowStart = null;
             markAsDirty();
         }
     }
@@ -458,9 +656,12 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         markAsDirty();
     }
 
-    private void setupCalendarItems() {
+    private void setupCalendarItems(boolean force) {
 
-        long durationInDays = Duration.between(startDate, endDate).toDays();
+        ZonedDateTime viewStartDate = getViewStartDate();
+        ZonedDateTime viewEndDate = getViewEndDate();
+
+        long durationInDays = Duration.between(viewStartDate, viewEndDate).toDays();
         durationInDays++;
 
         if (durationInDays > 60) {
@@ -468,38 +669,437 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
                     "Daterange is too big (max 60) = " + durationInDays);
         }
 
-        ZonedDateTime firstDateToShow = expandStartDate(startDate, durationInDays > 7);
-        ZonedDateTime lastDateToShow = expandEndDate(endDate, durationInDays > 7);
+        ZonedDateTime firstDateToShow = expandStartDate(viewStartDate, durationInDays > 7);
+        ZonedDateTime lastDateToShow = expandEndDate(viewEndDate, durationInDays > 7);
+
+        // Providers without change notification are queried on each repaint
+        List<Object> queryKey = Arrays.asList(firstDateToShow, lastDateToShow,
+                getZoneId(), getLocale(), getItemSortOrder(), numericDates, itemStringTable, lazyDescriptions);
+
+        boolean sameRange = queryKey.equals(itemsQueryKey);
+
+        int fromMinute = -1;
+        int toMinute = -1;
+        if (lazyItemLoading && durationInDays <= 7) {
+            int visibleFrom = visibleFromMinute < 0 ? firstHour * 60 : visibleFromMinute;
+            int visibleTo = visibleFromMinute < 0 ? visibleFrom + LAZY_DEFAULT_WINDOW_MINUTES : visibleToMinute;
+            fromMinute = Math.max(firstHour * 60, visibleFrom - lazyPrefetchMinutes);
+            toMinute = Math.min((lastHour + 1) * 60, visibleTo + lazyPrefetchMinutes);
+        }
+
+        boolean sameTime = fromMinute == getState(false).itemsFromMinute
+                && toMinute == getState(false).itemsToMinute;
+
+        // Async providers are only queried again on changes or refreshItems()
+        boolean asyncProvider = getDataProvider() instanceof CalendarAsyncItemProvider;
+
+        if (!force && !itemSetChanged && sameRange && sameTime && asyncItems == null
+                && (asyncProvider || getDataProvider() instanceof CalendarItemProvider.ItemSetChangedNotifier)) {
+            return;
+        }
+
+        boolean changed = itemSetChanged;
+        itemsQueryKey = queryKey;
+        itemSetChanged = false;
+        getState().itemsFromMinute = fromMinute;
+        getState().itemsToMinute = toMinute;
+        getState().lazyDescriptions = lazyDescriptions;
+
+        if (itemSubscription != null) {
+            // changes during the query must already be delivered for the new range
+            itemSubscription.setRange(firstDateToShow, lastDateToShow);
+        }
+
+        boolean stale;
+
+        if (asyncProvider) {
+
+            stale = getDataProvider().isStale(firstDateToShow, lastDateToShow);
+
+            List<Object> asyncKey = Arrays.asList(queryKey, fromMinute, toMinute);
+
+            if (changed || !asyncKey.equals(asyncItemsKey)) {
+                queryItemsAsync(asyncKey, firstDateToShow, lastDateToShow, fromMinute, toMinute);
+            }
+
+            if (asyncItems != null) {
+                items = asyncItems;
+                asyncItems = null;
+                getState().itemsLoading = false;
+            } else if (asyncQuery == null) {
+                // the current items are up to date
+                getState().itemsLoading = false;
+            } else {
+                getState().itemsLoading = true;
+                if (!sameRange || !sameTime) {
+                    items = Collections.emptyList();
+                } else if (!force) {
+                    // keep the current items until the new ones are loaded
+                    return;
+                }
+            }
+
+        } else if (fromMinute < 0) {
+            items = getDataProvider().getItems(firstDateToShow, lastDateToShow);
+            stale = getDataProvider().isStale(firstDateToShow, lastDateToShow);
+        } else {
+            // the items are stale if those of any queried day are
+            AtomicBoolean staleDays = new AtomicBoolean();
+            items = mergeItems(getItemsOfTimeOfDay(firstDateToShow, lastDateToShow, fromMinute, toMinute,
+                    (start, end) -> {
+                        List<ITEM> dayItems = getDataProvider().getItems(start, end);
+                        if (getDataProvider().isStale(start, end)) {
+                            staleDays.set(true);
+                        }
+                        return CompletableFuture.completedFuture(dayItems);
+                    }));
+            stale = staleDays.get();
+        }
 
-        items = getDataProvider().getItems(firstDateToShow, lastDateToShow);
         cacheMinMaxTimeOfDay(items);
+        getState().itemsStale = stale;
+
+        if (itemSubscription != null) {
+            itemSubscription.setRange(firstDateToShow, lastDateToShow, items);
+        }
+
+        Map<Object, Integer> indexes = itemKeyProvider == null ? new IdentityHashMap<>() : new HashMap<>();
+        itemsByIndex = new HashMap<>();
+
+        // Item changes may only refer to the strings already on the client
+        boolean sendChanges = incrementalItemUpdates && !force && sameRange && sentItems != null;
+        List<String> strings = null;
+        if (!itemStringTable) {
+            itemStrings = null;
+        } else if (!sendChanges || itemStrings == null) {
+            itemStrings = new HashMap<>();
+            strings = new ArrayList<>();
+        }
 
         List<CalendarState.Item> calendarStateItems = new ArrayList<>();
         if (items != null) {
             for (int i = 0; i < items.size(); i++) {
                 CalendarItem calItem = items.get(i);
                 CalendarState.Item item = new CalendarState.Item();
-                item.index = i;
+                item.index = getStableItemIndex(calItem, indexes);
+                itemsByIndex.put(item.index, calItem);
                 item.caption = calItem.getCaption() == null ? "" : calItem.getCaption();
 
+                if (numericDates) {
+                    item.startMinutes = toWallClockMinutes(calItem.getStart());
+                    item.endMinutes = toWallClockMinutes(calItem.getEnd());
+                } else {
 // XXX STRING FORMATTER yyyy-MM-dd
-                item.dateFrom = DATE_FORMAT.format(calItem.getStart());
-                item.dateTo = DATE_FORMAT.format(calItem.getEnd());
+                    item.dateFrom = DATE_FORMAT.format(calItem.getStart());
+                    item.dateTo = DATE_FORMAT.format(calItem.getEnd());
 // XXX STRING FORMATTER HH:mm:ss
-                item.timeFrom = getTimeFormatter().format(calItem.getStart());
-                item.timeTo = getTimeFormatter().format(calItem.getEnd());
+                    item.timeFrom = getTimeFormatter().format(calItem.getStart());
+                    item.timeTo = getTimeFormatter().format(calItem.getEnd());
+                }
 
-                item.description = calItem.getDescription() == null ? "" : calItem.getDescription();
+                if (!lazyDescriptions) {
+                    item.description = calItem.getDescription() == null ? "" : calItem.getDescription();
+                } else {
+                    // changes of the description drop it from the cache of the client
+                    item.descriptionHash = Objects.hashCode(calItem.getDescription());
+                }
                 item.styleName = calItem.getStyleName() == null ? "" : calItem.getStyleName();
                 item.dateCaptionFormat = calItem.getDateCaptionFormat();
                 item.allDay = calItem.isAllDay();
                 item.moveable = calItem.isMoveable();
                 item.resizeable = calItem.isResizeable();
                 item.clickable = calItem.isClickable();
+                if (itemStrings != null) {
+                    useStringTable(item, strings);
+                }
                 calendarStateItems.add(item);
             }
         }
-        getState().items = calendarStateItems;
+
+        itemIndexes = indexes;
+
+        if (strings != null || !itemStringTable) {
+            getState().strings = strings;
+        }
+
+        if (!incrementalItemUpdates) {
+            getState().items = calendarStateItems;
+            return;
+        }
+
+        if (sendChanges && strings == null) {
+            sendItemChanges(calendarStateItems);
+        } else {
+            getState().items = calendarStateItems;
+            getState().itemsRevision++;
+        }
+
+        sentItems = new LinkedHashMap<>();
+        for (CalendarState.Item item : calendarStateItems) {
+            sentItems.put(item.index, item);
+        }
+    }
+
+    /**
+     * Replace the strings of the item by their indexes in the string table.
+     * New strings are added to the table, if it is given, and sent inline
+     * otherwise.
+     */
+    private void useStringTable(CalendarState.Item item, List<String> strings) {
+        item.captionRef = getStringRef(item.caption, strings);
+        item.descriptionRef = getStringRef(item.description, strings);
+        item.styleNameRef = getStringRef(item.styleName, strings);
+        item.dateCaptionFormatRef = getStringRef(item.dateCaptionFormat, strings);
+        if (item.captionRef >= 0) {
+            item.caption = null;
+        }
+        if (item.descriptionRef >= 0) {
+            item.description = null;
+        }
+        if (item.styleNameRef >= 0) {
+            item.styleName = null;
+        }
+        if (item.dateCaptionFormatRef >= 0) {
+            item.dateCaptionFormat = null;
+        }
+    }
+
+    private int getStringRef(String value, List<String> strings) {
+        if (value == null) {
+            return -1;
+        }
+        Integer ref = itemStrings.get(value);
+        if (ref == null && strings != null) {
+            ref = strings.size();
+            strings.add(value);
+            itemStrings.put(value, ref);
+        }
+        return ref == null ? -1 : ref;
+    }
+
+    /**
+     * Query the items of each day which overlap the given time of the day.
+     */
+    private List<CompletableFuture<List<ITEM>>> getItemsOfTimeOfDay(ZonedDateTime firstDate, ZonedDateTime lastDate,
+            int fromMinute, int toMinute,
+            BiFunction<ZonedDateTime, ZonedDateTime, CompletableFuture<List<ITEM>>> query) {
+
+        List<CompletableFuture<List<ITEM>>> days = new ArrayList<>();
+
+        LocalDate lastDay = lastDate.toLocalDate();
+        for (LocalDate day = firstDate.toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            days.add(query.apply(atMinuteOfDay(day, fromMinute), atMinuteOfDay(day, toMinute)));
+        }
+
+        return days;
+    }
+
+    /**
+     * @return The given wall clock minute of the day. On days with a
+     * daylight saving change this differs from the elapsed minutes.
+     */
+    private ZonedDateTime atMinuteOfDay(LocalDate day, int minute) {
+        if (minute >= 24 * 60) {
+            return day.plusDays(1).atStartOfDay(getZoneId());
+        }
+        return day.atTime(LocalTime.MIN.plusMinutes(minute)).atZone(getZoneId());
+    }
+
+    /**
+     * Merge the completed item lists of several days. Items which span
+     * several days are only returned once.
+     */
+    private List<ITEM> mergeItems(List<CompletableFuture<List<ITEM>>> days) {
+
+        Set<ITEM> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ITEM> result = new ArrayList<>();
+
+        for (CompletableFuture<List<ITEM>> day : days) {
+            for (ITEM item : day.join()) {
+                if (found.add(item)) {
+                    result.add(item);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Start loading the items of an async provider. The items are applied
+     * with {@link UI#access(Runnable)} once they are loaded, unless another
+     * query was started in the meantime.
+     */
+    private void queryItemsAsync(List<Object> key, ZonedDateTime firstDate, ZonedDateTime lastDate,
+                                 int fromMinute, int toMinute) {
+
+        // a superseded query is not cancelled, its future may be shared with
+        // other callers of the provider. Its result is dropped below.
+        CalendarAsyncItemProvider<ITEM> provider = (CalendarAsyncItemProvider<ITEM>) getDataProvider();
+
+        CompletableFuture<List<ITEM>> query;
+        if (fromMinute < 0) {
+            query = provider.getItemsAsync(firstDate, lastDate);
+        } else {
+            List<CompletableFuture<List<ITEM>>> days = getItemsOfTimeOfDay(firstDate, lastDate,
+                    fromMinute, toMinute, provider::getItemsAsync);
+            query = CompletableFuture.allOf(days.toArray(new CompletableFuture[0]))
+                    .thenApply(done -> mergeItems(days));
+        }
+
+        asyncItemsKey = key;
+        asyncItems = null;
+
+        if (query.isDone() && !query.isCompletedExceptionally()) {
+            // already loaded, no need for a round trip
+            asyncQuery = null;
+            asyncItems = nonNullItems(query.join());
+            return;
+        }
+
+        UI ui = getUI();
+        if (ui == null) {
+            asyncItemsKey = null;
+            return;
+        }
+
+        asyncQuery = query;
+
+        query.whenComplete((result, error) -> ui.access(() -> {
+            if (asyncQuery != query) {
+                return;
+            }
+            asyncQuery = null;
+            if (error != null) {
+                getLogger().log(Level.WARNING, "Loading the calendar items failed", error);
+            }
+            asyncItems = nonNullItems(result);
+            markAsDirty();
+        }));
+    }
+
+    private List<ITEM> nonNullItems(List<ITEM> result) {
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int getStableItemIndex(CalendarItem item, Map<Object, Integer> indexes) {
+        Object key = itemKeyProvider == null ? item : itemKeyProvider.apply((ITEM) item);
+        Integer index = itemIndexes.get(key);
+        if (index == null || indexes.containsKey(key)) {
+            index = nextItemIndex++;
+        }
+        indexes.put(key, index);
+        return index;
+    }
+
+    /**
+     * Set the provider for item keys. Items with equal keys are treated as the
+     * same item across queries, even if the item provider returns new
+     * instances. Client requests are resolved by these keys, so a click on an
+     * item still reaches the same item if the item list has changed in the
+     * meantime. Set to null to identify items by their instance.
+     *
+     * @param itemKeyProvider The key provider, or null
+     */
+    public void setItemKeyProvider(ValueProvider<ITEM, Object> itemKeyProvider) {
+        this.itemKeyProvider = itemKeyProvider;
+        itemIndexes = itemKeyProvider == null ? new IdentityHashMap<>() : new HashMap<>();
+        sentItems = null;
+        refreshItems();
+    }
+
+    /**
+     * @return The provider for item keys or null, if items are identified by
+     * their instance
+     */
+    public ValueProvider<ITEM, Object> getItemKeyProvider() {
+        return itemKeyProvider;
+    }
+
+    /**
+     * Send the difference between the items on the client and the given
+     * items. The shared state is not touched, so the client keeps its views.
+     *
+     * @param calendarStateItems The current items
+     */
+    private void sendItemChanges(List<CalendarState.Item> calendarStateItems) {
+
+        List<CalendarState.Item> added = new ArrayList<>();
+        List<CalendarState.Item> updated = new ArrayList<>();
+        Set<Integer> removed = new LinkedHashSet<>(sentItems.keySet());
+
+        for (CalendarState.Item item : calendarStateItems) {
+            CalendarState.Item sent = sentItems.get(item.index);
+            if (sent == null) {
+                added.add(item);
+            } else {
+                removed.remove(item.index);
+                if (!isSameItem(sent, item)) {
+                    updated.add(item);
+                }
+            }
+        }
+
+        if (!added.isEmpty() || !updated.isEmpty() || !removed.isEmpty()) {
+            getRpcProxy(CalendarClientRpc.class).itemsChanged(added, updated, new ArrayList<>(removed));
+        }
+    }
+
+    private static boolean isSameItem(CalendarState.Item a, CalendarState.Item b) {
+        return a.allDay == b.allDay
+                && a.moveable == b.moveable
+                && a.resizeable == b.resizeable
+                && a.clickable == b.clickable
+                && Objects.equals(a.caption, b.caption)
+                && Objects.equals(a.dateFrom, b.dateFrom)
+                && Objects.equals(a.dateTo, b.dateTo)
+                && Objects.equals(a.timeFrom, b.timeFrom)
+                && Objects.equals(a.timeTo, b.timeTo)
+                && a.captionRef == b.captionRef
+                && a.descriptionRef == b.descriptionRef
+                && a.styleNameRef == b.styleNameRef
+                && a.dateCaptionFormatRef == b.dateCaptionFormatRef
+                && a.descriptionHash == b.descriptionHash
+                && a.startMinutes == b.startMinutes
+                && a.endMinutes == b.endMinutes
+                && Objects.equals(a.styleName, b.styleName)
+                && Objects.equals(a.description, b.description)
+                && Objects.equals(a.dateCaptionFormat, b.dateCaptionFormat);
+    }
+
+    /**
+     * Enables incremental item updates. If enabled and only the item set of
+     * the provider has changed, just the added, updated and removed items are
+     * sent to the client, which patches its view in place. Changes of the
+     * visible range still send all items.
+     *
+     * @param incrementalItemUpdates true to send only changed items
+     */
+    public void setIncrementalItemUpdates(boolean incrementalItemUpdates) {
+        if (this.incrementalItemUpdates != incrementalItemUpdates) {
+            this.incrementalItemUpdates = incrementalItemUpdates;
+            getState().incrementalItemUpdates = incrementalItemUpdates;
+            sentItems = null;
+            refreshItems();
+        }
+    }
+
+    /**
+     * @return true if only changed items are sent to the client
+     */
+    public boolean isIncrementalItemUpdates() {
+        return incrementalItemUpdates;
+    }
+
+    /**
+     * Get an item by the index which was sent to the client
+     *
+     * @param index The index of the item
+     * @return The item or null, if there is no such item
+     */
+    protected CalendarItem getItemByIndex(int index) {
+        return itemsByIndex.get(index);
     }
 
     /**
@@ -579,7 +1179,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 		if(Objects.nonNull(customFirstDayOfWeek)) {
 			return customFirstDayOfWeek;
 		}
-		return WeekFields.of(getLocale()).getFirstDayOfWeek();
+		return CalendarLocaleResources.getWeekFields(getLocale()).getFirstDayOfWeek();
 	}
 
     /**
@@ -636,37 +1236,139 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
             endDate = getEndDate();
         }
 
-        long durationInDays = Duration.between(startDate, endDate).toDays();
+        ZonedDateTime viewStartDate = getViewStartDate();
+        ZonedDateTime viewEndDate = getViewEndDate();
+
+        long durationInDays = Duration.between(viewStartDate, viewEndDate).toDays();
         durationInDays++;
         if (durationInDays > 60) {
             throw new RuntimeException( "Daterange is too big (max 60) = " + durationInDays);
         }
 
+        state.virtualizedView = isWindowed();
+
 
         state.dayNames = getDayNamesShort();
         state.monthNames = getMonthNamesShort();
 
         // Show "now"-marker in browser within given timezone.
         final ZonedDateTime now = ZonedDateTime.now(getZoneId());
-        state.now = new CalDate(now.getYear(), now.getMonthValue(), now.getDayOfMonth(),
-                new CalTime(now.getHour(), now.getMinute(), now.getSecond()));
+        state.numericDates = numericDates;
+        if (numericDates) {
+            state.now = null;
+            state.nowMinutes = toWallClockMinutes(now);
+        } else {
+            state.now = new CalDate(now.getYear(), now.getMonthValue(), now.getDayOfMonth(),
+                    new CalTime(now.getHour(), now.getMinute(), now.getSecond()));
+        }
 
         // Send all dates to client from server. This
         // approach was taken because gwt doesn't
         // support date localization properly.
         boolean monthView = durationInDays > 7;
-        ZonedDateTime firstDateToShow = expandStartDate(startDate, monthView);
-        ZonedDateTime lastDateToShow = expandEndDate(endDate, monthView);
-        ZonedDateTime dateToShow = firstDateToShow;
+        ZonedDateTime firstDateToShow = expandStartDate(viewStartDate, monthView);
+        ZonedDateTime lastDateToShow = expandEndDate(viewEndDate, monthView);
+        Map<CalendarDateRange, Collection<Action>> actionMap = new HashMap<>();
+        List<CalendarState.Day> days = getDays(firstDateToShow, lastDateToShow);
+
+        // Ranges for the batch handlers, which are asked once for all of them
+        List<CalendarDateRange> batchRanges = hasBatchActionHandler() && !lazyActions ? new ArrayList<>() : null;
+
+        // Get actions for each date
+        if (actionHandlers != null && !lazyActions) {
+
+            ZonedDateTime dateToShow = firstDateToShow;
+            while (dateToShow.compareTo(lastDateToShow) < 1) {
+
+                // Get day start and end times
+                ZonedDateTime start = dateToShow.with(LocalTime.MIN);
+                ZonedDateTime end = dateToShow.with(LocalTime.MAX);
+
+                if (batchRanges != null) {
+                    addActionRanges(batchRanges, start, end, monthView);
+                }
+
+                for (Action.Handler actionHandler : actionHandlers) {
+
+                    if (actionHandler instanceof CalendarActionBatchHandler) {
+                        continue;
+                    }
+
+                    /*
+                     * If in day or week view add actions for each half-an-hour.
+                     * If in month view add actions for each day
+                     */
+
+                    if (monthView) {
+                        setActionsForDay(actionMap, start, end, actionHandler);
+                    } else {
+                        setActionsForEachHalfHour(actionMap, start, end, actionHandler);
+                    }
+
+                }
+
+                dateToShow = dateToShow.plus(1, ChronoUnit.DAYS);
+            }
+        }
+
+        if (batchRanges != null) {
+            setActionsForRanges(actionMap, batchRanges);
+        }
+
+        state.days = days;
+        state.lazyActions = lazyActions;
+
+        if (compactActions) {
+            int slotMinutes = monthView ? DateConstants.DAYINMINUTES : 30;
+            state.actions = null;
+            state.actionTemplates = createActionTemplates(actionMap, firstDateToShow, slotMinutes);
+            state.actionSlotsStart = new CalDate(firstDateToShow.getYear(), firstDateToShow.getMonthValue(),
+                    firstDateToShow.getDayOfMonth());
+            state.actionSlotMinutes = slotMinutes;
+        } else {
+            state.actions = createActionsList(actionMap);
+            state.actionTemplates = null;
+        }
+    }
+
+    /**
+     * Get the days of the given range. The days are shared with other
+     * calendars which show the same days, unless a custom caption provider is
+     * used, so neither the list nor the days may be changed.
+     *
+     * @see CalendarDayCache
+     */
+    private List<CalendarState.Day> getDays(ZonedDateTime firstDateToShow, ZonedDateTime lastDateToShow) {
+
+        boolean defaultCaptions = weeklyCaptionFormatProvider == defaultCaptionFormatProvider;
+
+        List<Object> key = Arrays.asList(firstDateToShow, lastDateToShow, getLocale(), getFirstDayOfWeek(),
+                customMinimalDaysInFirstWeek, getTimeBlocksKey(), numericDates,
+                defaultCaptions ? null : weeklyCaptionFormatProvider);
+
+        if (!key.equals(daysKey)) {
+            Supplier<List<CalendarState.Day>> factory = () -> createDays(firstDateToShow, lastDateToShow);
+            cachedDays = defaultCaptions ? CalendarDayCache.getDays(key, factory) : factory.get();
+            daysKey = key;
+        }
+
+        return cachedDays;
+    }
+
+    private List<CalendarState.Day> createDays(ZonedDateTime firstDateToShow, ZonedDateTime lastDateToShow) {
 
-        Map<CalendarDateRange, Set<Action>> actionMap = new HashMap<>();
         List<CalendarState.Day> days = new ArrayList<>();
 
-        while (dateToShow.compareTo(lastDateToShow) < 1) {
+        for (ZonedDateTime dateToShow = firstDateToShow; dateToShow.compareTo(lastDateToShow) < 1;
+             dateToShow = dateToShow.plus(1, ChronoUnit.DAYS)) {
 
             final CalendarState.Day day = new CalendarState.Day();
 
-            day.date = new CalDate(dateToShow.getYear(), dateToShow.getMonthValue(), dateToShow.getDayOfMonth());
+            if (numericDates) {
+                day.dateMinutes = (int) (dateToShow.toLocalDate().toEpochDay() * DateConstants.DAYINMINUTES);
+            } else {
+                day.date = new CalDate(dateToShow.getYear(), dateToShow.getMonthValue(), dateToShow.getDayOfMonth());
+            }
 
             day.localizedDateFormat = weeklyCaptionFormatProvider.captionFrom(dateToShow);
 
@@ -674,61 +1376,233 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
             day.week = getWeekByDate(dateToShow);
             day.yearOfWeek = dateToShow.getYear();
 
-            day.slotStyles = new HashSet<>();
-
-            if (styledTimes.containsKey(allOverDate)) {
-                day.slotStyles.addAll(styledTimes.get(allOverDate));
-            }
+            Map<String, Long> timeBlocks = new TreeMap<>();
+            addTimeBlocks(timeBlocks, styledTimes.get(allOverDate));
+            addTimeBlocks(timeBlocks, weekdayStyledTimes.get(dateToShow.getDayOfWeek()));
+            addTimeBlocks(timeBlocks, styledTimes.get(dateToShow.toLocalDate()));
 
-            if (styledTimes.containsKey(dateToShow.toLocalDate())) {
-                day.slotStyles.addAll(styledTimes.get(dateToShow.toLocalDate()));
+            if (!timeBlocks.isEmpty()) {
+                day.timeBlockStyles = timeBlocks.keySet().toArray(new String[timeBlocks.size()]);
+                day.timeBlockSlots = timeBlocks.values().stream().mapToLong(Long::longValue).toArray();
             }
 
             days.add(day);
+        }
 
-            // Get actions for a specific date
-            if (actionHandlers != null) {
+        return Collections.unmodifiableList(days);
+    }
 
-                for (Action.Handler actionHandler : actionHandlers) {
+    /**
+     * @return A copy of the time blocks, which is not changed later
+     */
+    private List<Object> getTimeBlocksKey() {
+        if (timeBlocksKey == null) {
+            Map<LocalDate, Map<String, Long>> days = new HashMap<>();
+            styledTimes.forEach((day, slots) -> days.put(day, new TreeMap<>(slots)));
+            Map<DayOfWeek, Map<String, Long>> weekdays = new EnumMap<>(DayOfWeek.class);
+            weekdayStyledTimes.forEach((day, slots) -> weekdays.put(day, new TreeMap<>(slots)));
+            timeBlocksKey = Arrays.asList(days, weekdays);
+        }
+        return timeBlocksKey;
+    }
 
-                    // Get day start and end times
-                    ZonedDateTime start = dateToShow.with(LocalTime.MIN);
-                    ZonedDateTime end = dateToShow.with(LocalTime.MAX);
+    private static void addTimeBlocks(Map<String, Long> timeBlocks, Map<String, Long> slots) {
+        if (slots != null) {
+            slots.forEach((styleName, mask) -> addTimeBlocks(timeBlocks, styleName, mask));
+        }
+    }
 
-                    /*
-                     * If in day or week view add actions for each half-an-hour.
-                     * If in month view add actions for each day
-                     */
+    private static void addTimeBlocks(Map<String, Long> timeBlocks, String styleName, long mask) {
+        timeBlocks.merge(styleName == null ? "" : styleName, mask, (a, b) -> a | b);
+    }
 
-                    if (monthView) {
-                        setActionsForDay(actionMap, start, end, actionHandler);
-                    } else {
-                        setActionsForEachHalfHour(actionMap, start, end, actionHandler);
-                    }
+    /**
+     * @return The bitmask of the half hour slots from the first up to, but
+     *         not including the last. Slots outside of the day are left out.
+     */
+    private static long getSlotMask(long fromMillies, long toMillies) {
+        long fromSlot = Math.max(0, fromMillies / 1800000);
+        long toSlot = Math.min(48, toMillies / 1800000);
+        if (fromSlot >= toSlot) {
+            return 0;
+        }
+        return ((1L << (toSlot - fromSlot)) - 1) << fromSlot;
+    }
+
+	private int getWeekByDate(ZonedDateTime dateToShow) {
+		if(Objects.nonNull(customMinimalDaysInFirstWeek)) {
+			DayOfWeek firstDayOfWeek = getFirstDayOfWeek();
+			return (int) WeekFields.of(firstDayOfWeek, customMinimalDaysInFirstWeek)
+					.weekOfYear()
+					.getFrom(dateToShow);
+		}
+		return (int) CalendarLocaleResources.getWeekFields(getLocale())
+				.weekOfYear()
+				.getFrom(dateToShow);
+	}
+
+
+
+    /**
+     * Long date ranges are rendered as a window of weeks, if the virtualized
+     * view is enabled.
+     */
+    private boolean isWindowed() {
+        return virtualizedView && Duration.between(startDate, endDate).toDays() + 1 > 60;
+    }
+
+    /**
+     * @return The first date which is rendered. In the virtualized view this
+     *         is the first day of the current window.
+     */
+    private ZonedDateTime getViewStartDate() {
+
+        if (!isWindowed()) {
+            return startDate;
+        }
+
+        return clampWindowStart(windowStart);
+    }
+
+    /**
+     * @return The given window start, kept within the date range
+     */
+    private ZonedDateTime clampWindowStart(ZonedDateTime start) {
+
+        ZonedDateTime first = getFirstDayOfWeek(startDate);
+        ZonedDateTime last = getFirstDayOfWeek(endDate).minus(VIRTUALIZED_VIEW_WEEKS - 1, ChronoUnit.WEEKS);
+
+        if (start == null || start.isBefore(first)) {
+            return first;
+        }
+
+        return start.isAfter(last) ? last : start;
+    }
+
+    /**
+     * The start of the range which is queried from the item provider. This is
+     * the first rendered date, expanded to the start of its week if more than
+     * a week is shown.
+     *
+     * @return The start of the first shown day
+     */
+    public ZonedDateTime getExpandedStartDate() {
+        return expandStartDate(getViewStartDate(), isExpandedToFullWeeks());
+    }
+
+    /**
+     * The end of the range which is queried from the item provider. This is
+     * the last rendered date, expanded to the end of its week if more than a
+     * week is shown.
+     *
+     * @return The end of the last shown day
+     */
+    public ZonedDateTime getExpandedEndDate() {
+        return expandEndDate(getViewEndDate(), isExpandedToFullWeeks());
+    }
+
+    private boolean isExpandedToFullWeeks() {
+        return Duration.between(getViewStartDate(), getViewEndDate()).toDays() + 1 > 7;
+    }
+
+    /**
+     * @return The last date which is rendered. In the virtualized view this
+     *         is the last day of the current window.
+     */
+    private ZonedDateTime getViewEndDate() {
+
+        if (!isWindowed()) {
+            return endDate;
+        }
+
+        return getViewStartDate().plus(VIRTUALIZED_VIEW_WEEKS, ChronoUnit.WEEKS).minus(1, ChronoUnit.DAYS);
+    }
+
+    /**
+     * Enables the virtualized view. Date ranges longer than 60 days are then
+     * rendered as a window of six weeks, which the user scrolls with the mouse
+     * wheel. Days and items are only sent for the current window. Without the
+     * virtualized view, such date ranges are rejected.
+     *
+     * @param virtualizedView true to enable the virtualized view
+     */
+    public void setVirtualizedView(boolean virtualizedView) {
+        this.virtualizedView = virtualizedView;
+        windowStart = null;
+        markAsDirty();
+    }
 
-                }
-            }
+    /**
+     * @return true if long date ranges are rendered as a window of weeks
+     */
+    public boolean isVirtualizedView() {
+        return virtualizedView;
+    }
 
-            dateToShow = dateToShow.plus(1, ChronoUnit.DAYS);
+    /**
+     * Moves the window of the virtualized view. The window is kept within the
+     * date range.
+     *
+     * @param weeks The number of weeks to move, negative to move backwards
+     */
+    public void scrollWeeks(int weeks) {
+        if (isWindowed()) {
+            ZonedDateTime current = getViewStartDate();
+            ZonedDateTime moved = clampWindowStart(current.plus(weeks, ChronoUnit.WEEKS));
+            windowStart = moved;
+            if (!moved.equals(current)) {
+                markAsDirty();
+            }
         }
+    }
 
-        state.days = days;
-        state.actions = createActionsList(actionMap);
+    /**
+     * Enables lazy item loading in the weekly view. The item provider is then
+     * queried only for the time of the day which is visible on the client,
+     * extended by {@link #getLazyPrefetchMinutes()} before and after. More
+     * items are queried as the user scrolls. Combine with
+     * {@link #setIncrementalItemUpdates(boolean)} to send only the additional
+     * items. The monthly view is not affected.
+     * <p>
+     * Note that {@link #autoScaleVisibleHoursOfDay()} only considers the
+     * loaded items.
+     *
+     * @param lazyItemLoading true to query only the visible time of the day
+     */
+    public void setLazyItemLoading(boolean lazyItemLoading) {
+        this.lazyItemLoading = lazyItemLoading;
+        markAsDirty();
     }
 
-	private int getWeekByDate(ZonedDateTime dateToShow) {
-		if(Objects.nonNull(customMinimalDaysInFirstWeek)) {
-			DayOfWeek firstDayOfWeek = getFirstDayOfWeek();
-			return (int) WeekFields.of(firstDayOfWeek, customMinimalDaysInFirstWeek)
-					.weekOfYear()
-					.getFrom(dateToShow);
-		}
-		return (int) WeekFields.of(getLocale())
-				.weekOfYear()
-				.getFrom(dateToShow);
-	}
+    /**
+     * @return true if only the visible time of the day is queried in the
+     *         weekly view
+     */
+    public boolean isLazyItemLoading() {
+        return lazyItemLoading;
+    }
 
+    /**
+     * Set the minutes which are queried before and after the visible time of
+     * the day if lazy item loading is enabled. Default is 120.
+     *
+     * @param lazyPrefetchMinutes The minutes to prefetch, not negative
+     */
+    public void setLazyPrefetchMinutes(int lazyPrefetchMinutes) {
+        if (lazyPrefetchMinutes < 0) {
+            throw new IllegalArgumentException("Prefetch minutes must not be negative");
+        }
+        this.lazyPrefetchMinutes = lazyPrefetchMinutes;
+        markAsDirty();
+    }
 
+    /**
+     * @return The minutes which are queried before and after the visible time
+     *         of the day
+     */
+    public int getLazyPrefetchMinutes() {
+        return lazyPrefetchMinutes;
+    }
 
     /**
      * Finds the first day of the week and returns a day representing the start
@@ -844,7 +1718,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         return date;
     }
 
-    private void setActionsForEachHalfHour(Map<CalendarDateRange, Set<Action>> actionMap,
+    private void setActionsForEachHalfHour(Map<CalendarDateRange, Collection<Action>> actionMap,
                                            ZonedDateTime start, ZonedDateTime end, Action.Handler actionHandler) {
 
         ZonedDateTime actionTime = start;
@@ -856,26 +1730,93 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
             Action[] actions = actionHandler.getActions(range, this);
             if (actions != null) {
-                Set<Action> actionSet = new LinkedHashSet<>(Arrays.asList(actions));
-                actionMap.put(range, actionSet);
+                addActions(actionMap, range, actions);
+            }
+
+            actionTime = endTime;
+        }
+    }
+
+    private boolean hasBatchActionHandler() {
+        if (actionHandlers != null) {
+            for (Action.Handler actionHandler : actionHandlers) {
+                if (actionHandler instanceof CalendarActionBatchHandler) {
+                    return true;
+                }
             }
+        }
+        return false;
+    }
 
+    /**
+     * Adds the action ranges of a day: the whole day in month view, else each
+     * half hour.
+     */
+    private void addActionRanges(List<CalendarDateRange> ranges, ZonedDateTime start, ZonedDateTime end,
+                                 boolean monthView) {
+
+        if (monthView) {
+            ranges.add(new CalendarDateRange(start, end));
+            return;
+        }
+
+        ZonedDateTime actionTime = start;
+        while (actionTime.isBefore(end)) {
+            ZonedDateTime endTime = actionTime.plus(30, ChronoUnit.MINUTES);
+            ranges.add(new CalendarDateRange(actionTime, endTime));
             actionTime = endTime;
         }
     }
 
-    private void setActionsForDay(Map<CalendarDateRange, Set<Action>> actionMap,
+    /**
+     * Asks every batch handler once for the actions of all ranges.
+     */
+    private void setActionsForRanges(Map<CalendarDateRange, Collection<Action>> actionMap,
+                                     List<CalendarDateRange> ranges) {
+
+        for (Action.Handler actionHandler : actionHandlers) {
+
+            if (!(actionHandler instanceof CalendarActionBatchHandler)) {
+                continue;
+            }
+
+            Map<CalendarDateRange, Action[]> actions = ((CalendarActionBatchHandler) actionHandler).getActions(ranges, this);
+            if (actions == null) {
+                continue;
+            }
+
+            for (Entry<CalendarDateRange, Action[]> entry : actions.entrySet()) {
+                if (entry.getValue() != null && entry.getValue().length > 0) {
+                    addActions(actionMap, entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Add the actions of a handler to a range. Equal ranges of several
+     * handlers get the actions of all of them.
+     */
+    private void addActions(Map<CalendarDateRange, Collection<Action>> actionMap, CalendarDateRange range,
+                            Action[] actions) {
+        actionMap.merge(range, Arrays.asList(actions), (a, b) -> {
+            List<Action> merged = new ArrayList<>(a);
+            merged.addAll(b);
+            return merged;
+        });
+    }
+
+    private void setActionsForDay(Map<CalendarDateRange, Collection<Action>> actionMap,
                                   ZonedDateTime start, ZonedDateTime end, Action.Handler actionHandler) {
 
         CalendarDateRange range = new CalendarDateRange(start, end);
         Action[] actions = actionHandler.getActions(range, this);
         if (actions != null) {
-            Set<Action> actionSet = new LinkedHashSet<>(Arrays.asList(actions));
-            actionMap.put(range, actionSet);
+            addActions(actionMap, range, actions);
         }
     }
 
-    private List<CalendarState.Action> createActionsList(Map<CalendarDateRange, Set<Action>> actionMap) {
+    private List<CalendarState.Action> createActionsList(Map<CalendarDateRange, Collection<Action>> actionMap) {
 
         if (actionMap.isEmpty()) {
             return null;
@@ -883,7 +1824,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
         List<CalendarState.Action> calendarActions = new ArrayList<>();
 
-        for (Entry<CalendarDateRange, Set<Action>> entry : actionMap.entrySet()) {
+        for (Entry<CalendarDateRange, Collection<Action>> entry : actionMap.entrySet()) {
 
             CalendarDateRange range = entry.getKey();
 
@@ -894,8 +1835,13 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
                 calendarAction.caption = action.getCaption();
                 setResource(key, action.getIcon());
                 calendarAction.iconKey = key;
-                calendarAction.startDate = ACTION_DATE_TIME_FORMAT.format(range.getStart());
-                calendarAction.endDate = ACTION_DATE_TIME_FORMAT.format(range.getEnd());
+                if (numericDates) {
+                    calendarAction.startMinutes = toWallClockMinutes(range.getStart());
+                    calendarAction.endMinutes = toWallClockMinutes(range.getEnd());
+                } else {
+                    calendarAction.startDate = ACTION_DATE_TIME_FORMAT.format(range.getStart());
+                    calendarAction.endDate = ACTION_DATE_TIME_FORMAT.format(range.getEnd());
+                }
                 calendarActions.add(calendarAction);
             }
         }
@@ -903,6 +1849,144 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         return calendarActions;
     }
 
+    /**
+     * Defines each action once, with the slots it applies to as runs of
+     * consecutive slots.
+     */
+    private List<CalendarState.ActionTemplate> createActionTemplates(
+            Map<CalendarDateRange, Collection<Action>> actionMap, ZonedDateTime firstSlot, int slotMinutes) {
+
+        if (actionMap.isEmpty()) {
+            return null;
+        }
+
+        LocalDateTime slotsStart = firstSlot.toLocalDateTime();
+        Map<Action, BitSet> slotsByAction = new LinkedHashMap<>();
+
+        for (Entry<CalendarDateRange, Collection<Action>> entry : actionMap.entrySet()) {
+            int slot = (int) (ChronoUnit.MINUTES.between(slotsStart, entry.getKey().getStart().toLocalDateTime()) / slotMinutes);
+            for (Action action : entry.getValue()) {
+                slotsByAction.computeIfAbsent(action, a -> new BitSet()).set(slot);
+            }
+        }
+
+        List<CalendarState.ActionTemplate> templates = new ArrayList<>();
+
+        for (Entry<Action, BitSet> entry : slotsByAction.entrySet()) {
+
+            Action action = entry.getKey();
+            BitSet slots = entry.getValue();
+
+            String key = actionMapper.key(action);
+            setResource(key, action.getIcon());
+
+            CalendarState.ActionTemplate template = new CalendarState.ActionTemplate();
+            template.actionKey = key;
+            template.caption = action.getCaption();
+            template.iconKey = key;
+
+            List<Integer> runs = new ArrayList<>();
+            for (int first = slots.nextSetBit(0); first >= 0; first = slots.nextSetBit(first)) {
+                int end = slots.nextClearBit(first);
+                runs.add(first);
+                runs.add(end - first);
+                first = end;
+            }
+            template.slotRuns = runs.stream().mapToInt(Integer::intValue).toArray();
+
+            templates.add(template);
+        }
+
+        return templates;
+    }
+
+    /**
+     * Enables the compact encoding of the actions. Each action is then sent
+     * once with the slots it applies to, instead of once per slot.
+     *
+     * @param compactActions true to send each action once
+     */
+    public void setCompactActions(boolean compactActions) {
+        this.compactActions = compactActions;
+        markAsDirty();
+    }
+
+    /**
+     * @return true if each action is sent once with the slots it applies to
+     */
+    public boolean isCompactActions() {
+        return compactActions;
+    }
+
+    /**
+     * Enables the string table for the items. The captions, descriptions,
+     * style names and date caption formats are then sent once in a table,
+     * and the items refer to them by index. This makes the state much
+     * smaller, if many items share the same strings.
+     *
+     * @param itemStringTable true to send the strings of the items in a table
+     */
+    public void setItemStringTable(boolean itemStringTable) {
+        this.itemStringTable = itemStringTable;
+        markAsDirty();
+    }
+
+    /**
+     * @return true if the strings of the items are sent in a table
+     */
+    public boolean isItemStringTable() {
+        return itemStringTable;
+    }
+
+    /**
+     * Enables loading the descriptions of the items on demand. A description
+     * is then requested by the client when the tooltip of its item is shown,
+     * instead of being sent with all items. Use this for large descriptions
+     * which are rarely shown.
+     *
+     * @param lazyDescriptions true to send descriptions on demand
+     */
+    public void setLazyDescriptions(boolean lazyDescriptions) {
+        this.lazyDescriptions = lazyDescriptions;
+        markAsDirty();
+    }
+
+    /**
+     * @return true if the descriptions are sent on demand
+     */
+    public boolean isLazyDescriptions() {
+        return lazyDescriptions;
+    }
+
+    /**
+     * Enables the numeric encoding of dates. The dates of the items, days and
+     * actions and the current time are then sent as minutes since 1970-01-01
+     * 00:00 in the time zone of the calendar, instead of formatted strings.
+     * Seconds are dropped.
+     *
+     * @param numericDates true to send dates as numbers
+     */
+    public void setNumericDates(boolean numericDates) {
+        this.numericDates = numericDates;
+        markAsDirty();
+    }
+
+    /**
+     * @return true if dates are sent as numbers
+     */
+    public boolean isNumericDates() {
+        return numericDates;
+    }
+
+    /**
+     * @return The minutes since 1970-01-01 00:00 of the wall clock time of
+     *         the date in the time zone of the calendar
+     */
+    private int toWallClockMinutes(ZonedDateTime date) {
+        LocalDateTime local = date.withZoneSameInstant(getZoneId()).toLocalDateTime();
+        return (int) Math.floorDiv(local.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
     /**
      * Gets currently active time format. Value is either TimeFormat.Format12H
      * or TimeFormat.Format24H.
@@ -911,16 +1995,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      */
     public TimeFormat getTimeFormat() {
         if (currentTimeFormat == null) {
-            SimpleDateFormat f;
-            if (getLocale() == null) {
-                f = (SimpleDateFormat) SimpleDateFormat
-                        .getTimeInstance(SimpleDateFormat.SHORT);
-            } else {
-                f = (SimpleDateFormat) SimpleDateFormat
-                        .getTimeInstance(SimpleDateFormat.SHORT, getLocale());
-            }
-            String p = f.toPattern();
-            if (p.contains("H")) {
+            if (CalendarLocaleResources.is24HourFormat(getLocale())) {
                 return TimeFormat.Format24H;
             }
             return TimeFormat.Format12H;
@@ -1172,14 +2247,14 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      * Fires an item move event to all server side move listerners
      *
      * @param index
-     *            The index of the item in the items list
+     *            The index of the item as sent to the client
      * @param newFromDatetime
      *            The changed from date time
      */
     protected void fireItemMove(int index, ZonedDateTime newFromDatetime) {
 
         CalendarComponentEvents.ItemMoveEvent event =
-                new CalendarComponentEvents.ItemMoveEvent(this, items.get(index), newFromDatetime);
+                new CalendarComponentEvents.ItemMoveEvent(this, getItemByIndex(index), newFromDatetime);
 
         if (calendarItemProvider instanceof CalendarComponentEvents.ItemMoveHandler) {
 
@@ -1212,7 +2287,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      *            The index of the event in the event cache.
      */
     protected void fireItemClick(Integer index) {
-        fireEvent(new CalendarComponentEvents.ItemClickEvent(this, items.get(index)));
+        fireEvent(new CalendarComponentEvents.ItemClickEvent(this, getItemByIndex(index)));
     }
 
     /**
@@ -1256,7 +2331,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     protected void fireItemResize(int index, ZonedDateTime startTime, ZonedDateTime endTime) {
 
         CalendarComponentEvents.ItemResizeEvent event =
-                new CalendarComponentEvents.ItemResizeEvent(this, items.get(index), startTime, endTime);
+                new CalendarComponentEvents.ItemResizeEvent(this, getItemByIndex(index), startTime, endTime);
 
         if (calendarItemProvider instanceof CalendarComponentEvents.EventResizeHandler) {
             // Notify event provider if it is an event resize handler
@@ -1275,8 +2350,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      * @return Array of localized weekday names.
      */
     protected String[] getDayNamesShort() {
-        DateFormatSymbols s = new DateFormatSymbols(getLocale());
-        return Arrays.copyOfRange(s.getWeekdays(), 1, 8);
+        return CalendarLocaleResources.getDayNames(getLocale());
     }
 
     /**
@@ -1286,8 +2360,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      * @return Array of localized month names.
      */
     protected String[] getMonthNamesShort() {
-        DateFormatSymbols s = new DateFormatSymbols(getLocale());
-        return Arrays.copyOf(s.getShortMonths(), 12);
+        return CalendarLocaleResources.getMonthNamesShort(getLocale());
     }
 
     /**
@@ -1306,18 +2379,66 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         }
 
         // remove old listener
+        unsubscribeItems();
         if (getDataProvider() instanceof CalendarItemProvider.ItemSetChangedNotifier) {
             ((CalendarItemProvider.ItemSetChangedNotifier) getDataProvider()).removeItemSetChangedListener(this);
         }
 
         this.calendarItemProvider = calendarItemProvider;
+        itemSetChanged = true;
 
-        // add new listener
-        if (calendarItemProvider instanceof CalendarItemProvider.ItemSetChangedNotifier) {
+        // add new listener, a live provider only notifies about the shown range
+        if (calendarItemProvider instanceof LiveItemProvider) {
+            if (isAttached()) {
+                subscribeItems();
+            }
+        } else if (calendarItemProvider instanceof CalendarItemProvider.ItemSetChangedNotifier) {
             ((CalendarItemProvider.ItemSetChangedNotifier) calendarItemProvider).addItemSetChangedListener(this);
         }
     }
 
+    @Override
+    public void attach() {
+        super.attach();
+
+        if (getDataProvider() instanceof LiveItemProvider) {
+            subscribeItems();
+            // changes while detached were not delivered
+            itemSetChanged = true;
+        }
+    }
+
+    @Override
+    public void detach() {
+        unsubscribeItems();
+
+        super.detach();
+    }
+
+    /**
+     * Subscribe to the changes of the shown range. Changes are delivered to
+     * the UI of this calendar with {@link UI#access(Runnable)}.
+     */
+    @SuppressWarnings("unchecked")
+    private void subscribeItems() {
+
+        unsubscribeItems();
+
+        itemSubscription = ((LiveItemProvider<ITEM>) getDataProvider()).subscribe(this);
+
+        if (itemsQueryKey != null) {
+            itemSubscription.setRange((ZonedDateTime) itemsQueryKey.get(0),
+                    (ZonedDateTime) itemsQueryKey.get(1), items);
+        }
+    }
+
+    private void unsubscribeItems() {
+        if (itemSubscription != null) {
+            itemSubscription.remove();
+            itemSubscription = null;
+        }
+    }
+
     /**
      * @return the {@link CalendarItemProvider} currently used
      */
@@ -1327,12 +2448,88 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
     @Override
     public void itemSetChanged(CalendarItemProvider.ItemSetChangedEvent changeEvent) {
+
+        UI ui = getUI();
+        VaadinSession session = ui == null ? null : ui.getSession();
+        if (session != null && !session.hasLock()) {
+            // a background thread, e.g. a refresh of the provider
+            if (updateScheduler != null) {
+                pendingItemChanges.add(changeEvent);
+                updateScheduler.schedule(this, this::applyPendingItemChanges);
+            } else {
+                ui.access(() -> applyItemSetChanged(changeEvent));
+            }
+            return;
+        }
+
+        applyItemSetChanged(changeEvent);
+    }
+
+    private void applyItemSetChanged(CalendarItemProvider.ItemSetChangedEvent changeEvent) {
         // sanity check
-        if (calendarItemProvider == changeEvent.getProvider()) {
+        if (calendarItemProvider == changeEvent.getProvider() && isAffectedBy(changeEvent)) {
+            itemSetChanged = true;
             markAsDirty();
         }
     }
 
+    private void applyPendingItemChanges() {
+        CalendarItemProvider.ItemSetChangedEvent changeEvent;
+        while ((changeEvent = pendingItemChanges.poll()) != null) {
+            applyItemSetChanged(changeEvent);
+        }
+    }
+
+    /**
+     * Set the scheduler which collects the item changes of background
+     * threads. Changes which are signaled without the session lock are then
+     * applied together with the other updates of the UI, instead of one by
+     * one. The scheduler must belong to the UI of this calendar. It is not
+     * serialized with the calendar.
+     *
+     * @param updateScheduler The scheduler of the UI, or null to apply each
+     *                        change on its own
+     */
+    public void setUpdateScheduler(CalendarUpdateScheduler updateScheduler) {
+        this.updateScheduler = updateScheduler;
+    }
+
+    /**
+     * @return The scheduler which collects the item changes of background
+     * threads, or null
+     */
+    public CalendarUpdateScheduler getUpdateScheduler() {
+        return updateScheduler;
+    }
+
+    /**
+     * Does the change affect the shown items. Changes of items which are
+     * neither shown nor within the shown date range are ignored.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean isAffectedBy(CalendarItemProvider.ItemSetChangedEvent<ITEM> changeEvent) {
+
+        if (itemsQueryKey == null || changeEvent.getChangeType() == CalendarItemProvider.ItemSetChangedEvent.ChangeType.RESET) {
+            return true;
+        }
+
+        ZonedDateTime firstDateShown = (ZonedDateTime) itemsQueryKey.get(0);
+        ZonedDateTime lastDateShown = (ZonedDateTime) itemsQueryKey.get(1);
+
+        if (changeEvent.overlaps(firstDateShown, lastDateShown)) {
+            return true;
+        }
+
+        for (ITEM item : changeEvent.getItems()) {
+            Object key = itemKeyProvider == null ? item : itemKeyProvider.apply(item);
+            if (itemIndexes.containsKey(key)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Set the handler for the given type information. Mirrors
      * {@link #addListener(String, Class, Object, Method) addListener} from
@@ -1458,7 +2655,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         } else {
             int dayIndex = (Integer) clientVariables.get("dropDayIndex");
 
-            ZonedDateTime dropTime = expandStartDate(startDate, true)
+            ZonedDateTime dropTime = expandStartDate(getViewStartDate(), true)
                     .plus(dayIndex, ChronoUnit.DAYS);
 
             serverVariables.put("dropDay", dropTime.toEpochSecond() * 1000);
@@ -1562,6 +2759,26 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         return !isDayMode() && !isMonthlyMode();
     }
 
+    /**
+     * Enables lazy context menu actions. The action handlers are then asked
+     * for the actions of a slot, day or item when the user opens its context
+     * menu, instead of asking them for every slot of the view on each
+     * repaint. The context menu opens after a round trip to the server.
+     *
+     * @param lazyActions true to query the actions when the context menu is opened
+     */
+    public void setLazyActions(boolean lazyActions) {
+        this.lazyActions = lazyActions;
+        markAsDirty();
+    }
+
+    /**
+     * @return true if the actions are queried when the context menu is opened
+     */
+    public boolean isLazyActions() {
+        return lazyActions;
+    }
+
     @Override
     public void removeActionHandler(Handler actionHandler) {
         if (actionHandlers != null && actionHandlers.contains(actionHandler)) {
@@ -1579,7 +2796,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         @Override
         public void itemResize(int itemIndex, CalDate newStartDate, CalDate newEndDate) {
 
-            if (!isClientChangeAllowed()) {
+            if (!isClientChangeAllowed() || getItemByIndex(itemIndex) == null) {
                 return;
             }
 
@@ -1599,7 +2816,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
                 return;
             }
 
-            if (itemIndex >= 0 && itemIndex < items.size() && items.get(itemIndex) != null) {
+            if (getItemByIndex(itemIndex) != null) {
                 fireItemMove(itemIndex, ZonedDateTime.of(
                         newDate.y, newDate.m, newDate.d, newDate.t.h, newDate.t.m, newDate.t.s, 0, getZoneId()));
             }
@@ -1676,8 +2893,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
         @Override
         public void itemClick(int itemIndex) {
-            if (itemIndex >= 0 && itemIndex < items.size()
-                    && items.get(itemIndex) != null) {
+            if (getItemByIndex(itemIndex) != null) {
                 fireItemClick(itemIndex);
             }
         }
@@ -1687,6 +2903,24 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
             getState().scroll = scrollPosition;
         }
 
+        @Override
+        public void scrollWeeks(int weeks) {
+            Calendar.this.scrollWeeks(weeks);
+            // the window may not move at the end of the range
+            getRpcProxy(CalendarClientRpc.class).weeksScrolled();
+        }
+
+        @Override
+        public void visibleTimeChanged(int firstMinute, int lastMinute) {
+            visibleFromMinute = Math.max(0, firstMinute);
+            visibleToMinute = Math.max(visibleFromMinute, lastMinute);
+            if (lazyItemLoading) {
+                markAsDirty();
+            }
+            // the loaded time may not change at the first or last hour
+            getRpcProxy(CalendarClientRpc.class).visibleTimeHandled();
+        }
+
         @Override
         public void actionOnEmptyCell(String actionKey, CalDate startDate, CalDate endDate) {
 
@@ -1700,13 +2934,51 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
 
         }
 
+        @Override
+        public void requestActions(int requestId, CalDate startDate, CalDate endDate) {
+
+            List<CalendarState.Action> actions = null;
+
+            if (actionHandlers != null) {
+
+                CalendarDateRange range = new CalendarDateRange(
+                        ZonedDateTime.of(startDate.y, startDate.m, startDate.d,
+                                startDate.t.h, startDate.t.m, startDate.t.s, 0, getZoneId()),
+                        ZonedDateTime.of(endDate.y, endDate.m, endDate.d,
+                                endDate.t.h, endDate.t.m, endDate.t.s, 0, getZoneId()));
+
+                Set<Action> actionSet = new LinkedHashSet<>();
+                for (Action.Handler actionHandler : actionHandlers) {
+                    Action[] handlerActions = actionHandler.getActions(range, Calendar.this);
+                    if (handlerActions != null) {
+                        actionSet.addAll(Arrays.asList(handlerActions));
+                    }
+                }
+
+                actions = createActionsList(Collections.singletonMap(range, actionSet));
+            }
+
+            getRpcProxy(CalendarClientRpc.class).showActions(requestId,
+                    actions == null ? Collections.emptyList() : actions);
+        }
+
+        @Override
+        public void requestDescription(int itemIndex) {
+
+            CalendarItem item = itemsByIndex.get(itemIndex);
+            String description = item == null ? null : item.getDescription();
+
+            getRpcProxy(CalendarClientRpc.class).showDescription(itemIndex,
+                    description == null ? "" : description);
+        }
+
         @Override
         public void actionOnItem(String actionKey, CalDate startDate, CalDate endDate, int itemIndex) {
 
             Action action = actionMapper.get(actionKey);
 
             for (Action.Handler ah : actionHandlers) {
-                ah.handleAction(action, Calendar.this, items.get(itemIndex));
+                ah.handleAction(action, Calendar.this, getItemByIndex(itemIndex));
             }
         }
     }
@@ -1820,20 +3092,9 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      * @param styleName css class for this block (currently unused)
      */
     protected final void addTimeBlockInternaly(LocalDate day, Long fromMillies, String styleName) {
-        Set<CalendarState.SlotStyle> styledTimes;
-        if (this.styledTimes.containsKey(day)) {
-            styledTimes = this.styledTimes.get(day);
-        } else {
-            styledTimes = new HashSet<>();
-        }
-
-        // create a new styled time slot
-        final CalendarState.SlotStyle slotStyle = new CalendarState.SlotStyle();
-        slotStyle.slotStart = fromMillies;
-        slotStyle.styleName = styleName;
-        styledTimes.add(slotStyle);
-
-        this.styledTimes.put(day, styledTimes);
+        addTimeBlocks(styledTimes.computeIfAbsent(day, d -> new TreeMap<>()), styleName,
+                getSlotMask(fromMillies, fromMillies + 1800000));
+        timeBlocksKey = null;
     }
 
     /**
@@ -1860,17 +3121,57 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
     public void addTimeBlock(LocalDate day, long fromMillies, long toMillies, String styleName) {
         assert (toMillies > fromMillies && fromMillies % 1800000 == 0 && toMillies % 1800000 == 0);
 
-        while (fromMillies < toMillies) {
+        addTimeBlocks(styledTimes.computeIfAbsent(day, d -> new TreeMap<>()), styleName,
+                getSlotMask(fromMillies, toMillies));
+        timeBlocksKey = null;
 
-            addTimeBlockInternaly(day, fromMillies, styleName);
-            fromMillies += 1800000;
+        markAsDirty();
+    }
+
+    /**
+     * Add a time block marker which recurs on the given days of the week,
+     * for example the business hours from monday to friday. Time steps are
+     * half hour.
+     *
+     * @param daysOfWeek The days of the week
+     * @param from Start of the block
+     * @param to End of the block, midnight for the end of the day
+     * @param styleName css class for this block
+     */
+    public void addTimeBlock(Set<DayOfWeek> daysOfWeek, LocalTime from, LocalTime to, String styleName) {
+
+        long toMillies = to.equals(LocalTime.MIDNIGHT)
+                ? DateConstants.DAYINMILLIS : to.toNanoOfDay() / 1000000;
+        long fromMillies = from.toNanoOfDay() / 1000000;
+
+        if (fromMillies % 1800000 != 0 || toMillies % 1800000 != 0) {
+            throw new IllegalArgumentException("Time blocks must start and end at full or half hours");
         }
 
+        long mask = getSlotMask(fromMillies, toMillies);
+        for (DayOfWeek dayOfWeek : daysOfWeek) {
+            addTimeBlocks(weekdayStyledTimes.computeIfAbsent(dayOfWeek, d -> new TreeMap<>()), styleName, mask);
+        }
+        timeBlocksKey = null;
+
         markAsDirty();
     }
 
     public void clearTimeBlocks() {
         styledTimes.clear();
+        weekdayStyledTimes.clear();
+        timeBlocksKey = null;
+        markAsDirty();
+    }
+
+    /**
+     * Remove the time blocks which recur on the given day of the week.
+     *
+     * @param dayOfWeek The day of the week
+     */
+    public void clearTimeBlocks(DayOfWeek dayOfWeek) {
+        weekdayStyledTimes.remove(dayOfWeek);
+        timeBlocksKey = null;
         markAsDirty();
     }
 
@@ -1878,6 +3179,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
         if (styledTimes.containsKey(day)) {
             styledTimes.remove(day);
         }
+        timeBlocksKey = null;
         markAsDirty();
     }
 
@@ -2031,7 +3333,7 @@ public class Calendar<ITEM extends EditableCalendarItem> extends AbstractCompone
      */
     protected DateTimeFormatter getTimeFormatter() {
         if (timeFormatter == null) {
-            timeFormatter = DateTimeFormatter.ofPattern(DateConstants.TIME_FORMAT_PATTERN).withZone(getZoneId());
+            timeFormatter = CalendarLocaleResources.getTimeFormatter(getZoneId());
         }
         return timeFormatter;
     }
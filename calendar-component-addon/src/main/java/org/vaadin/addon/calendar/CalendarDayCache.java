@@ -0,0 +1,106 @@
+package org.vaadin.addon.calendar;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.vaadin.addon.calendar.client.CalendarState;
+
+/**
+ * The days sent to the client, which are shared by all calendars of the JVM.
+ * <p>
+ * The days only depend on the shown range, the locale, the week definition
+ * and the time blocks, so calendars showing the same weeks can use the same
+ * immutable lists. Only the days of calendars with the default caption
+ * provider are shared. The least recently used lists are evicted.
+ * <p>
+ * The lists are unmodifiable, but the {@link CalendarState.Day} objects in
+ * them have public fields. They must never be changed, neither in
+ * {@link Calendar#getState()} of a subclass nor by any other hook, since the
+ * change would show in every session which shows the same days. To show
+ * different days, set a new list with new days to the state.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public final class CalendarDayCache {
+
+    /**
+     * Maximum number of cached day lists.
+     */
+    public static final int MAX_ENTRIES = 256;
+
+    private static final Map<List<Object>, List<CalendarState.Day>> DAYS =
+            new LinkedHashMap<List<Object>, List<CalendarState.Day>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<Object>, List<CalendarState.Day>> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private CalendarDayCache() {
+    }
+
+    /**
+     * Get the days of the given key, or create and cache them.
+     *
+     * @param key All values the days depend on
+     * @param factory Creates the days, which must not be changed afterwards
+     * @return The cached days
+     */
+    static List<CalendarState.Day> getDays(List<Object> key, Supplier<List<CalendarState.Day>> factory) {
+
+        synchronized (DAYS) {
+            List<CalendarState.Day> days = DAYS.get(key);
+            if (days != null) {
+                hits.incrementAndGet();
+                return days;
+            }
+        }
+
+        misses.incrementAndGet();
+        List<CalendarState.Day> days = factory.get();
+
+        synchronized (DAYS) {
+            List<CalendarState.Day> cached = DAYS.putIfAbsent(key, days);
+            return cached == null ? days : cached;
+        }
+    }
+
+    /**
+     * @return The number of day lists which were found in the cache
+     */
+    public static long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of day lists which were created
+     */
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of cached day lists
+     */
+    public static int size() {
+        synchronized (DAYS) {
+            return DAYS.size();
+        }
+    }
+
+    /**
+     * Drop all cached days.
+     */
+    public static void clear() {
+        synchronized (DAYS) {
+            DAYS.clear();
+        }
+    }
+}
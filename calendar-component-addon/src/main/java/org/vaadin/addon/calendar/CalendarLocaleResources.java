@@ -0,0 +1,128 @@
+package org.vaadin.addon.calendar;
+
+import java.text.DateFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.time.temporal.WeekFields;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.vaadin.addon.calendar.client.DateConstants;
+
+/**
+ * Locale dependent resources of the calendar, which are shared by all
+ * calendars of the JVM.
+ * <p>
+ * The resources are created once per locale or time zone and are immutable,
+ * so they can be used by all sessions at the same time. Arrays are returned
+ * as copies.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public final class CalendarLocaleResources {
+
+    private static final ConcurrentMap<Locale, String[]> DAY_NAMES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Locale, String[]> MONTH_NAMES = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Locale, Boolean> FORMAT_24H = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Locale, DateTimeFormatter> DATE_CAPTION_FORMATTERS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Locale, WeekFields> WEEK_FIELDS = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<ZoneId, DateTimeFormatter> TIME_FORMATTERS = new ConcurrentHashMap<>();
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private CalendarLocaleResources() {
+    }
+
+    /**
+     * Localized display names for week days starting from sunday.
+     *
+     * @param locale The locale, or null for the default locale
+     * @return Array of the 7 localized weekday names
+     */
+    public static String[] getDayNames(Locale locale) {
+        return get(DAY_NAMES, locale(locale),
+                l -> Arrays.copyOfRange(new DateFormatSymbols(l).getWeekdays(), 1, 8)).clone();
+    }
+
+    /**
+     * Localized short display names for months starting from January.
+     *
+     * @param locale The locale, or null for the default locale
+     * @return Array of the 12 localized month names
+     */
+    public static String[] getMonthNamesShort(Locale locale) {
+        return get(MONTH_NAMES, locale(locale),
+                l -> Arrays.copyOf(new DateFormatSymbols(l).getShortMonths(), 12)).clone();
+    }
+
+    /**
+     * @param locale The locale, or null for the default locale
+     * @return true if the short time format of the locale uses 24 hours
+     */
+    public static boolean is24HourFormat(Locale locale) {
+        return get(FORMAT_24H, locale(locale), l -> ((SimpleDateFormat) SimpleDateFormat
+                .getTimeInstance(SimpleDateFormat.SHORT, l)).toPattern().contains("H"));
+    }
+
+    /**
+     * @param locale The locale, or null for the default locale
+     * @return The medium localized date format, used for the day captions
+     */
+    public static DateTimeFormatter getDateCaptionFormatter(Locale locale) {
+        return get(DATE_CAPTION_FORMATTERS, locale(locale),
+                l -> DateTimeFormatter.ofLocalizedDate(FormatStyle.MEDIUM).withLocale(l));
+    }
+
+    /**
+     * @param locale The locale, or null for the default locale
+     * @return The week definition of the locale
+     */
+    public static WeekFields getWeekFields(Locale locale) {
+        return get(WEEK_FIELDS, locale(locale), WeekFields::of);
+    }
+
+    /**
+     * @param zoneId The time zone
+     * @return The format of the item times sent to the client
+     */
+    public static DateTimeFormatter getTimeFormatter(ZoneId zoneId) {
+        return get(TIME_FORMATTERS, zoneId,
+                z -> DateTimeFormatter.ofPattern(DateConstants.TIME_FORMAT_PATTERN).withZone(z));
+    }
+
+    /**
+     * @return The number of resources which were found in the cache
+     */
+    public static long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of resources which were created
+     */
+    public static long getMissCount() {
+        return misses.get();
+    }
+
+    private static Locale locale(Locale locale) {
+        return locale == null ? Locale.getDefault(Locale.Category.FORMAT) : locale;
+    }
+
+    private static <K, V> V get(ConcurrentMap<K, V> cache, K key, Function<K, V> factory) {
+        V value = cache.get(key);
+        if (value != null) {
+            hits.incrementAndGet();
+            return value;
+        }
+        misses.incrementAndGet();
+        return cache.computeIfAbsent(key, factory);
+    }
+}
@@ -0,0 +1,259 @@
+package org.vaadin.addon.calendar;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
+
+/**
+ * Collects the background updates of a UI and applies them together.
+ * <p>
+ * Updates which are scheduled within the configured window are applied in a
+ * single {@link UI#access(Runnable)}, so the UI is locked and pushed only
+ * once. An update replaces a pending update with the same key. Pushes are
+ * rate limited: the next updates are applied at the earliest after the
+ * minimum push interval, and not before the UI has processed the previous
+ * ones.
+ * <p>
+ * Updates of a detached UI are dropped, and the scheduler is closed. So
+ * are the pending updates if the executor rejects the flush. An update which
+ * fails is logged, the other updates of the window are applied anyway.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class CalendarUpdateScheduler {
+
+    /**
+     * Default time to collect updates before they are applied.
+     */
+    public static final Duration DEFAULT_WINDOW = Duration.ofMillis(200);
+
+    private final UI ui;
+
+    private final ScheduledExecutorService executor;
+
+    private final long windowNanos;
+
+    private volatile long minPushIntervalNanos;
+
+    private final Map<Object, Runnable> pending = new LinkedHashMap<>();
+
+    private boolean flushScheduled = false;
+
+    private boolean closed = false;
+
+    private long lastPush;
+
+    private Future<Void> lastAccess;
+
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong pushes = new AtomicLong();
+
+    /**
+     * Collect the updates of the given UI for {@link #DEFAULT_WINDOW}.
+     *
+     * @param ui The UI to update
+     * @param executor The executor which applies the collected updates
+     */
+    public CalendarUpdateScheduler(UI ui, ScheduledExecutorService executor) {
+        this(ui, executor, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Collect the updates of the given UI.
+     *
+     * @param ui The UI to update
+     * @param executor The executor which applies the collected updates
+     * @param window The time to collect updates before they are applied
+     */
+    public CalendarUpdateScheduler(UI ui, ScheduledExecutorService executor, Duration window) {
+
+        if (ui == null || executor == null) {
+            throw new IllegalArgumentException("UI and executor cannot be null");
+        }
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("Update window cannot be negative");
+        }
+
+        this.ui = ui;
+        this.executor = executor;
+        this.windowNanos = window.toNanos();
+        this.minPushIntervalNanos = windowNanos;
+        this.lastPush = System.nanoTime() - windowNanos;
+    }
+
+    /**
+     * Schedule an update of the UI. The update is run with the UI locked,
+     * together with the other updates of the window. A pending update with
+     * the same key is replaced.
+     *
+     * @param key Identifies updates which replace each other
+     * @param update The update to run
+     */
+    public void schedule(Object key, Runnable update) {
+
+        synchronized (this) {
+            if (closed) {
+                dropped.incrementAndGet();
+                return;
+            }
+
+            scheduled.incrementAndGet();
+            if (pending.put(key, update) != null) {
+                merged.incrementAndGet();
+            }
+
+            if (!flushScheduled) {
+                long nextPush = lastPush + minPushIntervalNanos - System.nanoTime();
+                scheduleFlush(Math.max(windowNanos, nextPush));
+            }
+        }
+    }
+
+    /**
+     * Schedule the next flush, or close the scheduler if the executor
+     * rejects it. Called with the lock held.
+     */
+    private void scheduleFlush(long delayNanos) {
+        try {
+            executor.schedule(this::flush, delayNanos, TimeUnit.NANOSECONDS);
+            flushScheduled = true;
+        } catch (RejectedExecutionException e) {
+            // nothing would apply the pending updates
+            flushScheduled = false;
+            close();
+        }
+    }
+
+    private void flush() {
+
+        List<Runnable> updates;
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            if (lastAccess != null && !lastAccess.isDone()) {
+                // the UI has not processed the previous updates yet
+                scheduleFlush(Math.max(windowNanos, minPushIntervalNanos));
+                return;
+            }
+
+            updates = new ArrayList<>(pending.values());
+            pending.clear();
+            flushScheduled = false;
+            lastPush = System.nanoTime();
+        }
+
+        try {
+            Future<Void> access = ui.access(() -> updates.forEach(this::apply));
+            pushes.incrementAndGet();
+            synchronized (this) {
+                lastAccess = access;
+            }
+        } catch (UIDetachedException e) {
+            dropped.addAndGet(updates.size());
+            close();
+        }
+    }
+
+    private void apply(Runnable update) {
+        try {
+            update.run();
+        } catch (RuntimeException e) {
+            // the other updates of the window are still applied
+            getLogger().log(Level.WARNING, "Applying an update failed", e);
+        }
+    }
+
+    /**
+     * Set the minimum time between two pushes. Updates which are scheduled
+     * in the meantime are collected until the interval has passed. The
+     * default is the update window.
+     *
+     * @param minPushInterval The minimum time between two pushes
+     */
+    public void setMinPushInterval(Duration minPushInterval) {
+        this.minPushIntervalNanos = minPushInterval.toNanos();
+    }
+
+    /**
+     * @return The minimum time between two pushes
+     */
+    public Duration getMinPushInterval() {
+        return Duration.ofNanos(minPushIntervalNanos);
+    }
+
+    /**
+     * Drop the pending updates and ignore further updates.
+     */
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            dropped.addAndGet(pending.size());
+            pending.clear();
+        }
+    }
+
+    /**
+     * @return true if the scheduler was closed
+     */
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return The UI which is updated
+     */
+    public UI getUI() {
+        return ui;
+    }
+
+    /**
+     * @return The number of scheduled updates
+     */
+    public long getScheduledCount() {
+        return scheduled.get();
+    }
+
+    /**
+     * @return The number of updates which replaced a pending update with
+     * the same key
+     */
+    public long getMergedCount() {
+        return merged.get();
+    }
+
+    /**
+     * @return The number of updates which were dropped, because the UI was
+     * detached or the scheduler was closed
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return The number of times collected updates were applied to the UI
+     */
+    public long getPushCount() {
+        return pushes.get();
+    }
+
+    private static Logger getLogger() {
+        return Logger.getLogger(CalendarUpdateScheduler.class.getName());
+    }
+}
@@ -15,6 +15,8 @@
  */
 package org.vaadin.addon.calendar.client;
 
+import java.util.List;
+
 import com.vaadin.shared.communication.ClientRpc;
 
 /**
@@ -25,4 +27,45 @@ import com.vaadin.shared.communication.ClientRpc;
  */
 public interface CalendarClientRpc extends ClientRpc {
     void scroll(int scrollPosition);
+
+    /**
+     * Patch the items of the current view. Items are identified by their
+     * index, which is stable while incremental item updates are enabled.
+     *
+     * @param added Items which are new in the view
+     * @param updated Items which have changed
+     * @param removed Indexes of the items which are no longer in the view
+     */
+    void itemsChanged(List<CalendarState.Item> added, List<CalendarState.Item> updated, List<Integer> removed);
+
+    /**
+     * Answer a {@link CalendarServerRpc#requestActions} call with the actions
+     * of the requested range.
+     *
+     * @param requestId The id of the request
+     * @param actions The actions, empty if there are none
+     */
+    void showActions(int requestId, List<CalendarState.Action> actions);
+
+    /**
+     * Answer a {@link CalendarServerRpc#requestDescription} call with the
+     * description of the item.
+     *
+     * @param itemIndex The index of the item
+     * @param description The description, empty if there is none
+     */
+    void showDescription(int itemIndex, String description);
+
+    /**
+     * Answer a {@link CalendarServerRpc#scrollWeeks} call. Sent even if the
+     * window has not moved, so the client scrolls again.
+     */
+    void weeksScrolled();
+
+    /**
+     * Answer a {@link CalendarServerRpc#visibleTimeChanged} call. Sent even
+     * if the loaded time of the day has not changed, so the client requests
+     * other times again.
+     */
+    void visibleTimeHandled();
 }
@@ -21,11 +21,14 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.vaadin.addon.calendar.client.ui.VCalendar;
+import org.vaadin.addon.calendar.client.ui.schedule.CalDate;
 import org.vaadin.addon.calendar.client.ui.schedule.CalendarDay;
 import org.vaadin.addon.calendar.client.ui.schedule.CalendarItem;
 import org.vaadin.addon.calendar.client.ui.schedule.DateCell;
@@ -38,7 +41,9 @@ import org.vaadin.addon.calendar.client.ui.schedule.dd.CalendarMonthDropHandler;
 import org.vaadin.addon.calendar.client.ui.schedule.dd.CalendarWeekDropHandler;
 
 import com.google.gwt.dom.client.Element;
+import com.google.gwt.dom.client.EventTarget;
 import com.google.gwt.dom.client.NativeEvent;
+import com.google.gwt.event.dom.client.MouseOutEvent;
 import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.Window;
 import com.google.gwt.user.client.ui.Widget;
@@ -72,8 +77,42 @@ public class CalendarConnector extends AbstractComponentConnector
     private final HashMap<String, String> actionMap = new HashMap<>();
     private CalendarServerRpc rpc = RpcProxy.create(CalendarServerRpc.class, this);
     private HashMap<Object, String> tooltips = new HashMap<>();
+
+    /** Number of descriptions kept, if they are loaded on demand */
+    private static final int DESCRIPTION_CACHE_SIZE = 32;
+
+    /** The recently shown descriptions, if they are loaded on demand */
+    private final LinkedHashMap<Integer, String> descriptions = new LinkedHashMap<Integer, String>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > DESCRIPTION_CACHE_SIZE;
+        }
+    };
+
+    /** The item which waits for its description from the server */
+    private int descriptionRequestIndex = -1;
+
+    /** The tooltip key of the item under the pointer, null if none */
+    private Object hoveredTooltipKey;
     private List<String> actionKeys = new ArrayList<>();
 
+    /** Actions of the view grouped by action key, indexed by their ranges */
+    private final List<ActionGroup> actionGroups = new ArrayList<>();
+
+    /** Items of the view by index, if incremental item updates are used */
+    private final LinkedHashMap<Integer, CalendarState.Item> currentItems = new LinkedHashMap<>();
+    /** Rendered client side items by index */
+    private final HashMap<Integer, CalendarItem> renderedItems = new HashMap<>();
+    private int itemsRevision = -1;
+
+    /** The context menu which waits for its actions from the server */
+    private int actionRequestId = 0;
+    private Date actionRequestStart;
+    private Date actionRequestEnd;
+    private CalendarItem actionRequestItem;
+    private int actionRequestLeft;
+    private int actionRequestTop;
+
     private static final String DROPHANDLER_ACCEPT_CRITERIA_PAINT_TAG = "-ac";
 
     /**
@@ -88,10 +127,59 @@ public class CalendarConnector extends AbstractComponentConnector
     @Override
     protected void init() {
         super.init();
-        registerRpc(CalendarClientRpc.class, (CalendarClientRpc) scrollPosition -> {
-            // TODO widget scroll
+        registerRpc(CalendarClientRpc.class, new CalendarClientRpc() {
+
+            @Override
+            public void scroll(int scrollPosition) {
+                // TODO widget scroll
+            }
+
+            @Override
+            public void itemsChanged(List<CalendarState.Item> added, List<CalendarState.Item> updated,
+                                     List<Integer> removed) {
+                resolveStrings(added);
+                resolveStrings(updated);
+                updateItems(added, updated, removed);
+            }
+
+            @Override
+            public void showActions(int requestId, List<CalendarState.Action> actions) {
+                if (requestId == actionRequestId) {
+                    showRequestedActions(actions);
+                }
+            }
+
+            @Override
+            public void showDescription(int itemIndex, String description) {
+                descriptions.put(itemIndex, description);
+                if (itemIndex == descriptionRequestIndex) {
+                    descriptionRequestIndex = -1;
+                    // the pointer may have left the item in the meantime
+                    if (!description.isEmpty() && Integer.valueOf(itemIndex).equals(hoveredTooltipKey)) {
+                        getConnection().getVTooltip().showAssistive(new TooltipInfo(description,
+                                getState().descriptionContentMode, null, CalendarConnector.this));
+                    }
+                }
+            }
+
+            @Override
+            public void weeksScrolled() {
+                getWidget().weekScrollHandled();
+            }
+
+            @Override
+            public void visibleTimeHandled() {
+                getWidget().visibleTimeHandled();
+            }
         });
         getLayoutManager().registerDependency(this, getWidget().getElement());
+
+        getWidget().addDomHandler(event -> {
+            EventTarget target = event.getNativeEvent().getRelatedEventTarget();
+            if (target == null || !Element.is(target) || !getWidget().getElement().isOrHasChild(Element.as(target))) {
+                hoveredTooltipKey = null;
+            }
+        }, MouseOutEvent.getType());
     }
 
     @Override
@@ -158,17 +246,25 @@ public class CalendarConnector extends AbstractComponentConnector
             // This call is @Delayed (== non-immediate)
             rpc.scroll(scrollPosition);
         });
+        getWidget().setListener((VCalendar.WeekScrollListener) weeks -> rpc.scrollWeeks(weeks));
+        getWidget().setListener((VCalendar.VisibleTimeListener) (firstMinute, lastMinute) -> rpc.visibleTimeChanged(firstMinute, lastMinute));
         getWidget().setListener((VCalendar.ItemClickListener) item -> {
             if (hasEventListener(CalendarEventId.ITEM_CLICK)) {
                 rpc.itemClick(item.getIndex());
             }
         });
-        getWidget().setListener((event, widget) -> {
+        getWidget().setListener((VCalendar.MouseEventListener) (event, widget) -> {
             final NativeEvent ne = event.getNativeEvent();
             int left = ne.getClientX();
             int top = ne.getClientY();
             top += Window.getScrollTop();
             left += Window.getScrollLeft();
+
+            if (getState().lazyActions) {
+                requestActions(widget, ne, left, top);
+                return;
+            }
+
             getClient().getContextMenu().showAt(new ActionOwner() {
                 @Override
                 public String getPaintableId() {
@@ -240,6 +336,91 @@ public class CalendarConnector extends AbstractComponentConnector
         });
     }
 
+    /**
+     * Ask the server for the actions of the widget which was right clicked.
+     * The context menu is shown when the actions arrive.
+     */
+    @SuppressWarnings("deprecation")
+    private void requestActions(Widget widget, NativeEvent ne, int left, int top) {
+
+        Date start;
+        Date end;
+        CalendarItem item = null;
+
+        if (widget instanceof SimpleDayCell) {
+            SimpleDayCell cell = (SimpleDayCell) widget;
+            start = new Date(cell.getDate().getYear(), cell.getDate().getMonth(),
+                    cell.getDate().getDate(), 0, 0, 0);
+            end = new Date(cell.getDate().getYear(), cell.getDate().getMonth(),
+                    cell.getDate().getDate(), 23, 59, 59);
+
+        } else if (widget instanceof MonthItemLabel) {
+            item = ((MonthItemLabel) widget).getCalendarItem();
+            start = item.getStartTime();
+            end = item.getEndTime();
+
+        } else if (widget instanceof DateCell) {
+            DateCell cell = (DateCell) widget;
+            int slotIndex = DOM.getChildIndex(cell.getElement(), ne.getEventTarget().cast());
+            DateCell.DateCellSlot slot = cell.getSlot(slotIndex);
+            start = slot.getFrom();
+            end = slot.getTo();
+
+        } else if (widget instanceof DateCellDayItem) {
+            item = ((DateCellDayItem) widget).getCalendarItem();
+            start = item.getStartTime();
+            end = item.getEndTime();
+
+        } else {
+            return;
+        }
+
+        actionRequestId++;
+        actionRequestStart = start;
+        actionRequestEnd = end;
+        actionRequestItem = item;
+        actionRequestLeft = left;
+        actionRequestTop = top;
+
+        rpc.requestActions(actionRequestId, DateConstants.toRPCDateTime(start), DateConstants.toRPCDateTime(end));
+    }
+
+    private void showRequestedActions(List<CalendarState.Action> stateActions) {
+
+        if (stateActions.isEmpty()) {
+            return;
+        }
+
+        final Action[] actions = new Action[stateActions.size()];
+        for (int i = 0; i < actions.length; i++) {
+            CalendarState.Action action = stateActions.get(i);
+            VCalendarAction a = new VCalendarAction(this, rpc, action.actionKey);
+            a.setCaption(action.caption);
+            a.setIconUrl(action.iconKey == null ? null : getResourceUrl(action.iconKey));
+            a.setActionStartDate(actionRequestStart);
+            a.setActionEndDate(actionRequestEnd);
+            a.setEvent(actionRequestItem);
+            actions[i] = a;
+        }
+
+        getClient().getContextMenu().showAt(new ActionOwner() {
+            @Override
+            public String getPaintableId() {
+                return CalendarConnector.this.getPaintableId();
+            }
+
+            @Override
+            public ApplicationConnection getClient() {
+                return CalendarConnector.this.getClient();
+            }
+
+            @Override
+            public Action[] getActions() {
+                return actions;
+            }
+        }, actionRequestLeft, actionRequestTop);
+    }
+
     private boolean showingMonthView() {
         return getState().days.size() > 7;
     }
@@ -277,6 +458,10 @@ public class CalendarConnector extends AbstractComponentConnector
         CalendarState state = getState();
         VCalendar widget = getWidget();
 
+        if (stateChangeEvent.hasPropertyChanged("items") || stateChangeEvent.hasPropertyChanged("strings")) {
+            resolveStrings(state.items);
+        }
+
         // Enable or disable the forward and backward navigation buttons
         widget.setForwardNavigationEnabled(hasEventListener(CalendarEventId.FORWARD));
         widget.setBackwardNavigationEnabled(hasEventListener(CalendarEventId.BACKWARD));
@@ -296,6 +481,10 @@ public class CalendarConnector extends AbstractComponentConnector
         widget.setItemResizeAllowed(hasEventListener(CalendarEventId.ITEM_RESIZE));
 
         widget.setItemCaptionAsHtml(state.itemCaptionAsHtml);
+        widget.setWeekScrollEnabled(state.virtualizedView);
+        widget.setLoadedTimeRange(state.itemsFromMinute, state.itemsToMinute);
+        widget.setStyleName(widget.getStylePrimaryName() + "-loading", state.itemsLoading);
+        widget.setStyleName(widget.getStylePrimaryName() + "-stale", state.itemsStale);
 
         CalendarState.ItemSortOrder oldOrder = getWidget().getSortOrder();
         if (!SharedUtil.equals(oldOrder, getState().itemSortOrder)) {
@@ -306,8 +495,20 @@ public class CalendarConnector extends AbstractComponentConnector
 
         updateSizes();
 
-        registerEventToolTips(state.items);
-        updateActionMap(state.actions);
+        if (stateChangeEvent.hasPropertyChanged("items") || stateChangeEvent.hasPropertyChanged("lazyDescriptions")) {
+            descriptions.clear();
+            descriptionRequestIndex = -1;
+        }
+
+        tooltips.clear();
+        registerEventToolTips(getCurrentItems());
+        if (stateChangeEvent.hasPropertyChanged("actions") || stateChangeEvent.hasPropertyChanged("actionTemplates")
+                || stateChangeEvent.hasPropertyChanged("actionSlotsStart")
+                || stateChangeEvent.hasPropertyChanged("actionSlotMinutes")
+                || stateChangeEvent.hasPropertyChanged("numericDates")) {
+            updateActionMap(state.actions);
+            updateActionGroups(state.actions, state.actionTemplates, state.actionSlotsStart, state.actionSlotMinutes);
+        }
     }
 
     /**
@@ -318,12 +519,42 @@ public class CalendarConnector extends AbstractComponentConnector
         return getConnection();
     }
 
+    /**
+     * Replace the references to the string table of the state by the strings.
+     */
+    private void resolveStrings(List<CalendarState.Item> items) {
+
+        List<String> strings = getState().strings;
+        if (items == null || strings == null) {
+            return;
+        }
+
+        for (CalendarState.Item item : items) {
+            if (item.captionRef >= 0) {
+                item.caption = strings.get(item.captionRef);
+            }
+            if (item.descriptionRef >= 0) {
+                item.description = strings.get(item.descriptionRef);
+            }
+            if (item.styleNameRef >= 0) {
+                item.styleName = strings.get(item.styleNameRef);
+            }
+            if (item.dateCaptionFormatRef >= 0) {
+                item.dateCaptionFormat = strings.get(item.dateCaptionFormatRef);
+            }
+        }
+    }
+
     /**
      * Register the description of the items as tooltips. This way, any event
      * displaying widget can use the event index as a key to display the
      * tooltip.
      */
     private void registerEventToolTips(List<CalendarState.Item> items) {
+        if (getState().lazyDescriptions) {
+            tooltips.clear();
+            return;
+        }
         for (CalendarState.Item e : items) {
             if (e.description != null && !"".equals(e.description)) {
                 tooltips.put(e.index, e.description);
@@ -345,7 +576,12 @@ public class CalendarConnector extends AbstractComponentConnector
             w = WidgetUtil.findWidget(element, DateCellDayItem.class);
         }
 
-        if (w instanceof HasTooltipKey) {
+        hoveredTooltipKey = w instanceof HasTooltipKey ? ((HasTooltipKey) w).getTooltipKey() : null;
+
+        if (w instanceof HasTooltipKey && getState().lazyDescriptions) {
+            tooltipInfo = new TooltipInfo(getDescription(((HasTooltipKey) w).getTooltipKey()),
+                    getState().descriptionContentMode, null, this);
+        } else if (w instanceof HasTooltipKey) {
             String title = tooltips.get(((HasTooltipKey) w).getTooltipKey());
             tooltipInfo = new TooltipInfo(title != null ? title : "", getState().descriptionContentMode,null, this);
         }
@@ -357,6 +593,31 @@ public class CalendarConnector extends AbstractComponentConnector
         return tooltipInfo;
     }
 
+    /**
+     * Get a description which is loaded on demand. If it is not loaded yet,
+     * it is requested from the server and shown once it arrives.
+     *
+     * @return The description, or an empty string while it is loaded
+     */
+    private String getDescription(Object tooltipKey) {
+
+        if (!(tooltipKey instanceof Integer)) {
+            return "";
+        }
+
+        int index = (Integer) tooltipKey;
+        String description = descriptions.get(index);
+        if (description != null) {
+            return description;
+        }
+
+        if (index != descriptionRequestIndex) {
+            descriptionRequestIndex = index;
+            rpc.requestDescription(index);
+        }
+        return "";
+    }
+
     @Override
     public boolean hasTooltip() {
         /*
@@ -366,11 +627,76 @@ public class CalendarConnector extends AbstractComponentConnector
         return true;
     }
 
+    /**
+     * Get the items of the view. With incremental item updates, these are the
+     * items of the shared state patched by all following item changes.
+     */
+    private List<CalendarState.Item> getCurrentItems() {
+
+        CalendarState state = getState();
+        if (!state.incrementalItemUpdates) {
+            return state.items;
+        }
+
+        if (itemsRevision != state.itemsRevision) {
+            itemsRevision = state.itemsRevision;
+            currentItems.clear();
+            for (CalendarState.Item item : state.items) {
+                currentItems.put(item.index, item);
+            }
+        }
+
+        return new ArrayList<>(currentItems.values());
+    }
+
+    /**
+     * Apply item changes to the current view. Falls back to a full update, if
+     * the view could not be patched in place.
+     */
+    private void updateItems(List<CalendarState.Item> added, List<CalendarState.Item> updated,
+                             List<Integer> removed) {
+
+        List<CalendarItem> removedItems = new ArrayList<>();
+        List<CalendarItem> addedItems = new ArrayList<>();
+
+        List<CalendarState.Item> changed = new ArrayList<>(added);
+        changed.addAll(updated);
+
+        for (Integer index : removed) {
+            currentItems.remove(index);
+            tooltips.remove(index);
+            descriptions.remove(index);
+            CalendarItem item = renderedItems.remove(index);
+            if (item != null) {
+                removedItems.add(item);
+            }
+        }
+
+        for (CalendarState.Item item : changed) {
+            currentItems.put(item.index, item);
+            descriptions.remove(item.index);
+            CalendarItem old = renderedItems.remove(item.index);
+            if (old != null) {
+                removedItems.add(old);
+            }
+            CalendarItem calendarItem = calendarItemOf(item, getState().format24H);
+            renderedItems.put(item.index, calendarItem);
+            addedItems.add(calendarItem);
+        }
+
+        registerEventToolTips(changed);
+
+        if (!getWidget().updateItems(removedItems, addedItems)) {
+            updateView();
+            updateSizes();
+        }
+    }
+
     private void updateView() {
 
         CalendarState state = getState();
         List<CalendarState.Day> days = state.days;
-        List<CalendarState.Item> items = state.items;
+        List<CalendarState.Item> items = getCurrentItems();
 
         CalendarDropHandler dropHandler = getWidget().getDropHandler();
         if (showingMonthView()) {
@@ -392,7 +718,7 @@ public class CalendarConnector extends AbstractComponentConnector
                                  List<CalendarState.Item> items) {
         CalendarState state = getState();
         getWidget().updateMonthView(state.firstDayOfWeek,
-                DateConstants.toClientDateTime(state.now),
+                getNow(state),
                 days.size(),
                 calendarEventListOf(items, state.format24H),
                 calendarDayListOf(days));
@@ -403,64 +729,53 @@ public class CalendarConnector extends AbstractComponentConnector
         CalendarState state = getState();
         getWidget().updateWeekView(
                 state.scroll,
-                DateConstants.toClientDateTime(state.now),
+                getNow(state),
                 state.firstDayOfWeek,
                 calendarEventListOf(items, state.format24H),
                 calendarDayListOf(days)
         );
     }
 
+    private static Date getNow(CalendarState state) {
+        if (state.numericDates) {
+            return DateConstants.toClientDateTime(state.nowMinutes);
+        }
+        return DateConstants.toClientDateTime(state.now);
+    }
+
+    private static boolean overlaps(long actionStartDate, long actionEndDate, long start, long end) {
+
+        // Case 0: action inside event timeframe
+        // Action should start AFTER or AT THE SAME TIME as the event,
+        // and
+        // Action should end BEFORE or AT THE SAME TIME as the event
+        boolean test0 = actionStartDate >= start
+                && actionEndDate <= end;
+
+        // Case 1: action intersects start of timeframe
+        // Action end time must be between start and end of event
+        boolean test1 = actionEndDate > start
+                && actionEndDate <= end;
+
+        // Case 2: action intersects end of timeframe
+        // Action start time must be between start and end of event
+        boolean test2 = actionStartDate >= start
+                && actionStartDate < end;
+
+        // Case 3: event inside action timeframe
+        // Action should start AND END before the event is complete
+        boolean test3 = start >= actionStartDate
+                && end <= actionEndDate;
+
+        return test0 || test1 || test2 || test3;
+    }
+
     private Action[] getActionsBetween(Date start, Date end) {
         List<Action> actions = new ArrayList<>();
-        List<String> ids = new ArrayList<>();
-
-        for (String actionKey : actionKeys) {
-
-            String id = getActionID(actionKey);
-            if (!ids.contains(id)) {
-
-                Date actionStartDate;
-                Date actionEndDate;
-                try {
-                    actionStartDate = getActionStartDate(actionKey);
-                    actionEndDate = getActionEndDate(actionKey);
-                } catch (ParseException pe) {
-                    Logger.getLogger(CalendarConnector.class.getName()).
-                            log(Level.SEVERE, "Failed to parse action date");
-                    continue;
-                }
 
-                // Case 0: action inside event timeframe
-                // Action should start AFTER or AT THE SAME TIME as the event,
-                // and
-                // Action should end BEFORE or AT THE SAME TIME as the event
-                boolean test0 = actionStartDate.compareTo(start) >= 0
-                        && actionEndDate.compareTo(end) <= 0;
-
-                // Case 1: action intersects start of timeframe
-                // Action end time must be between start and end of event
-                boolean test1 = actionEndDate.compareTo(start) > 0
-                        && actionEndDate.compareTo(end) <= 0;
-
-                // Case 2: action intersects end of timeframe
-                // Action start time must be between start and end of event
-                boolean test2 = actionStartDate.compareTo(start) >= 0
-                        && actionStartDate.compareTo(end) < 0;
-
-                // Case 3: event inside action timeframe
-                // Action should start AND END before the event is complete
-                boolean test3 = start.compareTo(actionStartDate) >= 0
-                        && end.compareTo(actionEndDate) <= 0;
-
-                if (test0 || test1 || test2 || test3) {
-                    VCalendarAction a = new VCalendarAction(this, rpc, actionKey);
-                    a.setCaption(getActionCaption(actionKey));
-                    a.setIconUrl(getActionIcon(actionKey));
-                    a.setActionStartDate(start);
-                    a.setActionEndDate(end);
-                    actions.add(a);
-                    ids.add(id);
-                }
+        for (ActionGroup group : actionGroups) {
+            if (group.overlaps(start.getTime(), end.getTime())) {
+                actions.add(group.createAction(start, end));
             }
         }
 
@@ -475,12 +790,16 @@ public class CalendarConnector extends AbstractComponentConnector
             return;
         }
 
+        boolean numericDates = getState().numericDates;
+
         for (CalendarState.Action action : actions) {
-            String id = action.actionKey + "-" + action.startDate + "-" + action.endDate;
+            String startDate = numericDates ? String.valueOf(action.startMinutes) : action.startDate;
+            String endDate = numericDates ? String.valueOf(action.endMinutes) : action.endDate;
+            String id = action.actionKey + "-" + startDate + "-" + endDate;
             actionMap.put(id + "_k", action.actionKey);
             actionMap.put(id + "_c", action.caption);
-            actionMap.put(id + "_s", action.startDate);
-            actionMap.put(id + "_e", action.endDate);
+            actionMap.put(id + "_s", startDate);
+            actionMap.put(id + "_e", endDate);
             actionKeys.add(id);
             if (action.iconKey != null) {
                 actionMap.put(id + "_i", getResourceUrl(action.iconKey));
@@ -493,6 +812,175 @@ public class CalendarConnector extends AbstractComponentConnector
         Collections.sort(actionKeys);
     }
 
+    /**
+     * Groups the actions of the shared state by their key and indexes them by
+     * their ranges, so a context menu only needs a tree search per action.
+     */
+    @SuppressWarnings("deprecation")
+    private void updateActionGroups(List<CalendarState.Action> actions, List<CalendarState.ActionTemplate> templates,
+                                    CalDate slotsStart, int slotMinutes) {
+        actionGroups.clear();
+
+        LinkedHashMap<String, ActionGroup> groups = new LinkedHashMap<>();
+
+        if (actions != null) {
+
+            boolean numericDates = getState().numericDates;
+
+            for (CalendarState.Action action : actions) {
+                ActionGroup group = groups.get(action.actionKey);
+                if (group == null) {
+                    group = new ActionGroup(action.actionKey, action.caption,
+                            action.iconKey == null ? null : getResourceUrl(action.iconKey));
+                    groups.put(action.actionKey, group);
+                }
+                if (numericDates) {
+                    group.add(DateConstants.toClientDateTime(action.startMinutes).getTime(),
+                            DateConstants.toClientDateTime(action.endMinutes).getTime());
+                } else {
+                    try {
+                        group.add(VCalendar.ACTION_DATE_TIME_FORMAT.parse(action.startDate).getTime(),
+                                VCalendar.ACTION_DATE_TIME_FORMAT.parse(action.endDate).getTime());
+                    } catch (IllegalArgumentException e) {
+                        Logger.getLogger(CalendarConnector.class.getName()).
+                                log(Level.SEVERE, "Failed to parse action date");
+                    }
+                }
+            }
+        }
+
+        if (templates != null) {
+
+            // whole days end one second before the next day
+            int endSeconds = slotMinutes >= DateConstants.DAYINMINUTES ? -1 : 0;
+
+            for (CalendarState.ActionTemplate template : templates) {
+                ActionGroup group = groups.get(template.actionKey);
+                if (group == null) {
+                    group = new ActionGroup(template.actionKey, template.caption,
+                            template.iconKey == null ? null : getResourceUrl(template.iconKey));
+                    groups.put(template.actionKey, group);
+                }
+                for (int i = 0; i + 1 < template.slotRuns.length; i += 2) {
+                    int firstSlot = template.slotRuns[i];
+                    int lastSlot = firstSlot + template.slotRuns[i + 1];
+                    Date start = new Date(slotsStart.y - 1900, slotsStart.m - 1, slotsStart.d,
+                            0, firstSlot * slotMinutes, 0);
+                    Date end = new Date(slotsStart.y - 1900, slotsStart.m - 1, slotsStart.d,
+                            0, lastSlot * slotMinutes, endSeconds);
+                    group.add(start.getTime(), end.getTime());
+                }
+            }
+        }
+
+        for (ActionGroup group : groups.values()) {
+            group.build();
+            actionGroups.add(group);
+        }
+    }
+
+    /**
+     * The ranges of one action, sorted by their start and stored as an
+     * implicit balanced tree (the middle of every sub range is its root).
+     * Every node keeps the maximum end of its sub tree, so a search only
+     * descends into sub trees which can contain overlapping ranges.
+     */
+    private class ActionGroup {
+
+        final String actionKey;
+        final String caption;
+        final String iconUrl;
+
+        private List<long[]> ranges = new ArrayList<>();
+        private long[] starts;
+        private long[] ends;
+        private long[] maxEnds;
+
+        ActionGroup(String actionKey, String caption, String iconUrl) {
+            this.actionKey = actionKey;
+            this.caption = caption;
+            this.iconUrl = iconUrl;
+        }
+
+        void add(long start, long end) {
+            ranges.add(new long[] { start, end });
+        }
+
+        void build() {
+            Collections.sort(ranges, (a, b) -> Long.compare(a[0], b[0]));
+
+            starts = new long[ranges.size()];
+            ends = new long[ranges.size()];
+            maxEnds = new long[ranges.size()];
+
+            for (int i = 0; i < starts.length; i++) {
+                starts[i] = ranges.get(i)[0];
+                ends[i] = ranges.get(i)[1];
+            }
+
+            buildMaxEnds(0, starts.length);
+            ranges = null;
+        }
+
+        private long buildMaxEnds(int lo, int hi) {
+            if (lo >= hi) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (lo + hi) >>> 1;
+            long max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+            maxEnds[mid] = max;
+            return max;
+        }
+
+        /**
+         * @return true if any range of this action overlaps the given range
+         */
+        boolean overlaps(long start, long end) {
+            return overlaps(0, starts.length, start, end);
+        }
+
+        private boolean overlaps(int lo, int hi, long start, long end) {
+
+            if (lo >= hi) {
+                return false;
+            }
+
+            int mid = (lo + hi) >>> 1;
+
+            // no range of the sub tree ends after the start
+            if (maxEnds[mid] < start) {
+                return false;
+            }
+
+            if (overlaps(lo, mid, start, end)) {
+                return true;
+            }
+
+            // the root and the right sub tree start after the end
+            if (starts[mid] > end) {
+                return false;
+            }
+
+            return CalendarConnector.overlaps(starts[mid], ends[mid], start, end)
+                    || overlaps(mid + 1, hi, start, end);
+        }
+
+        VCalendarAction createAction(Date actionStart, Date actionEnd) {
+            VCalendarAction a = new VCalendarAction(CalendarConnector.this, rpc, actionKey);
+            a.setCaption(caption);
+            a.setIconUrl(iconUrl);
+            a.setActionStartDate(actionStart);
+            a.setActionEndDate(actionEnd);
+            return a;
+        }
+
+        void addAllActions(List<Action> actions) {
+            for (int i = 0; i < starts.length; i++) {
+                actions.add(createAction(new Date(starts[i]), new Date(ends[i])));
+            }
+        }
+    }
+
     /**
      * Get the original action ID that was passed in from the shared state
      *
@@ -532,8 +1020,7 @@ public class CalendarConnector extends AbstractComponentConnector
      * @throws ParseException on parse
      */
     public Date getActionStartDate(String actionKey) throws ParseException {
-        String dateStr = actionMap.get(actionKey + "_s");
-        return VCalendar.ACTION_DATE_TIME_FORMAT.parse(dateStr);
+        return parseActionDate(actionMap.get(actionKey + "_s"));
     }
 
     /**
@@ -544,7 +1031,13 @@ public class CalendarConnector extends AbstractComponentConnector
      * @throws ParseException on parse
      */
     public Date getActionEndDate(String actionKey) throws ParseException {
-        String dateStr = actionMap.get(actionKey + "_e");
+        return parseActionDate(actionMap.get(actionKey + "_e"));
+    }
+
+    private Date parseActionDate(String dateStr) throws ParseException {
+        if (getState().numericDates) {
+            return DateConstants.toClientDateTime(Integer.parseInt(dateStr));
+        }
         return VCalendar.ACTION_DATE_TIME_FORMAT.parse(dateStr);
     }
 
@@ -571,6 +1064,13 @@ public class CalendarConnector extends AbstractComponentConnector
             actions.add(a);
         }
 
+        // compact action templates
+        if (actionKeys.isEmpty()) {
+            for (ActionGroup group : actionGroups) {
+                group.addAllActions(actions);
+            }
+        }
+
         return actions.toArray(new Action[actions.size()]);
     }
 
@@ -587,43 +1087,62 @@ public class CalendarConnector extends AbstractComponentConnector
     private List<CalendarItem> calendarEventListOf(List<CalendarState.Item> items, boolean format24h) {
 
         List<CalendarItem> list = new ArrayList<>(items.size());
+        renderedItems.clear();
 
         for (CalendarState.Item item : items) {
+            CalendarItem calendarItem = calendarItemOf(item, format24h);
+            renderedItems.put(item.index, calendarItem);
+            list.add(calendarItem);
+        }
+        return list;
+    }
 
-            // TODO replace with timestamps or object states
+    private CalendarItem calendarItemOf(CalendarState.Item item, boolean format24h) {
+
+        CalendarItem calendarItem = new CalendarItem();
+        calendarItem.setFormat24h(format24h);
+        calendarItem.setAllDay(item.allDay);
+        calendarItem.setCaption(item.caption);
+        calendarItem.setDescription(item.description);
+        calendarItem.setDateCaptionFormat(item.dateCaptionFormat);
+        calendarItem.setStyleName(item.styleName);
+        calendarItem.setIndex(item.index);
+        calendarItem.setMoveable(item.moveable);
+        calendarItem.setResizeable(item.resizeable);
+        calendarItem.setClickable(item.clickable);
+
+        if (getState().numericDates) {
+            Date startTime = DateConstants.toClientDateTime(item.startMinutes);
+            Date endTime = DateConstants.toClientDateTime(item.endMinutes);
+            calendarItem.setStart(dateOf(startTime));
+            calendarItem.setEnd(dateOf(endTime));
+            calendarItem.setStartTime(startTime);
+            calendarItem.setEndTime(endTime);
+        } else {
             final String dateFrom = item.dateFrom;
             final String dateTo = item.dateTo;
-            final String timeFrom = item.timeFrom;
-            final String timeTo = item.timeTo;
-
-            CalendarItem calendarItem = new CalendarItem();
-            calendarItem.setFormat24h(format24h);
-            calendarItem.setAllDay(item.allDay);
-            calendarItem.setCaption(item.caption);
-            calendarItem.setDescription(item.description);
-            calendarItem.setDateCaptionFormat(item.dateCaptionFormat);
-            calendarItem.setStyleName(item.styleName);
-            calendarItem.setIndex(item.index);
-            calendarItem.setMoveable(item.moveable);
-            calendarItem.setResizeable(item.resizeable);
-            calendarItem.setClickable(item.clickable);
-
             calendarItem.setStart(VCalendar.DATE_FORMAT.parse(dateFrom));
             calendarItem.setEnd(VCalendar.DATE_FORMAT.parse(dateTo));
-            calendarItem.setStartTime(VCalendar.ACTION_DATE_TIME_FORMAT.parse(dateFrom + " " + timeFrom));
-            calendarItem.setEndTime(VCalendar.ACTION_DATE_TIME_FORMAT.parse(dateTo + " " + timeTo));
-
-            list.add(calendarItem);
+            calendarItem.setStartTime(VCalendar.ACTION_DATE_TIME_FORMAT.parse(dateFrom + " " + item.timeFrom));
+            calendarItem.setEndTime(VCalendar.ACTION_DATE_TIME_FORMAT.parse(dateTo + " " + item.timeTo));
         }
-        return list;
+
+        return calendarItem;
+    }
+
+    @SuppressWarnings("deprecation")
+    private static Date dateOf(Date dateTime) {
+        return new Date(dateTime.getYear(), dateTime.getMonth(), dateTime.getDate());
     }
 
     private List<CalendarDay> calendarDayListOf(List<CalendarState.Day> days) {
+        boolean numericDates = getState().numericDates;
         List<CalendarDay> list = new ArrayList<>(days.size());
         for (CalendarState.Day day : days) {
             CalendarDay d = new CalendarDay(
-                    DateConstants.toClientDate(day.date),
-                    day.localizedDateFormat, day.dayOfWeek, day.week, day.yearOfWeek, day.slotStyles);
+                    numericDates ? DateConstants.toClientDateTime(day.dateMinutes) : DateConstants.toClientDate(day.date),
+                    day.localizedDateFormat, day.dayOfWeek, day.week, day.yearOfWeek,
+                    day.timeBlockStyles, day.timeBlockSlots);
             list.add(d);
         }
         return list;
@@ -48,4 +48,12 @@ public interface CalendarServerRpc extends ServerRpc {
 
     @Delayed(lastOnly = true)
     void scroll(int scrollPosition);
+
+    void scrollWeeks(int weeks);
+
+    void visibleTimeChanged(int firstMinute, int lastMinute);
+
+    void requestActions(int requestId, CalDate startDate, CalDate endDate);
+
+    void requestDescription(int itemIndex);
 }
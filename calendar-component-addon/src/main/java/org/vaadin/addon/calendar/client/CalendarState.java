@@ -15,9 +15,7 @@
  */
 package org.vaadin.addon.calendar.client;
 
-import java.io.Serializable;
 import java.util.List;
-import java.util.Set;
 
 import org.vaadin.addon.calendar.client.ui.schedule.CalDate;
 
@@ -39,10 +37,41 @@ public class CalendarState extends AbstractComponentState {
     public int firstDayOfWeek = 1;
     public int scroll = 0;
     public CalDate now;
+    /**
+     * The shown days. The list and the days are shared with other calendars
+     * on the server, see CalendarDayCache. They must never be changed, replace
+     * the list instead.
+     */
     public List<Day> days;
     public List<Item> items;
     public List<Action> actions;
+    public List<ActionTemplate> actionTemplates;
+    public CalDate actionSlotsStart;
+    public int actionSlotMinutes;
     public boolean itemCaptionAsHtml;
+    public boolean incrementalItemUpdates;
+    public int itemsRevision;
+    public boolean virtualizedView;
+    public boolean itemsLoading;
+    public boolean itemsStale;
+    public boolean lazyActions;
+    public boolean lazyDescriptions;
+    public int itemsFromMinute = -1;
+    public int itemsToMinute = -1;
+
+    /**
+     * If true, dates are sent as wall clock minutes since 1970-01-01 00:00
+     * in the fields ending with "Minutes", and the formatted strings and
+     * {@link CalDate}s are left out.
+     */
+    public boolean numericDates;
+    public int nowMinutes;
+
+    /**
+     * The strings which the items refer to by index, if the string table is
+     * enabled.
+     */
+    public List<String> strings;
 
     public ItemSortOrder itemSortOrder = ItemSortOrder.DURATION_DESC;
 
@@ -70,16 +99,33 @@ public class CalendarState extends AbstractComponentState {
         UNSORTED, START_DATE_DESC, START_DATE_ASC, DURATION_DESC, DURATION_ASC;
     }
 
+    /**
+     * A shown day. Days of the server state may be shared by several
+     * calendars, so their fields must not be changed after the day was set
+     * to {@link CalendarState#days}.
+     */
     public static class Day implements java.io.Serializable {
         public CalDate date;
+        public int dateMinutes;
         public String localizedDateFormat;
         public int dayOfWeek;
         public int week;
         public int yearOfWeek;
-        public Set<SlotStyle> slotStyles;
+        /** The styles of the time blocks of the day */
+        public String[] timeBlockStyles;
+        /**
+         * The half hour slots of each style, bit 0 is the slot starting at
+         * midnight
+         */
+        public long[] timeBlockSlots;
     }
 
-    public static class SlotStyle implements Serializable {
+    /**
+     * @deprecated Time blocks are sent as {@link Day#timeBlockStyles} and
+     *             {@link Day#timeBlockSlots}, this class is not sent anymore
+     */
+    @Deprecated
+    public static class SlotStyle implements java.io.Serializable {
         public long slotStart;
         public String styleName;
     }
@@ -91,6 +137,22 @@ public class CalendarState extends AbstractComponentState {
         public String actionKey;
         public String startDate;
         public String endDate;
+        public int startMinutes;
+        public int endMinutes;
+    }
+
+    /**
+     * An action with all slots it applies to. Slots are counted from
+     * {@link CalendarState#actionSlotsStart} in steps of
+     * {@link CalendarState#actionSlotMinutes}.
+     */
+    public static class ActionTemplate implements java.io.Serializable {
+
+        public String caption;
+        public String iconKey;
+        public String actionKey;
+        /** Pairs of the first slot and the number of slots */
+        public int[] slotRuns;
     }
 
     public static class Item implements java.io.Serializable {
@@ -100,6 +162,8 @@ public class CalendarState extends AbstractComponentState {
         public String dateTo;
         public String timeFrom;
         public String timeTo;
+        public int startMinutes;
+        public int endMinutes;
         public String styleName;
         public String description;
         public boolean allDay;
@@ -107,5 +171,12 @@ public class CalendarState extends AbstractComponentState {
         public boolean resizeable;
         public boolean clickable;
         public String dateCaptionFormat;
+        /** Indexes in {@link CalendarState#strings}, or -1 if sent inline */
+        public int captionRef = -1;
+        public int descriptionRef = -1;
+        public int styleNameRef = -1;
+        public int dateCaptionFormatRef = -1;
+        /** Hash of the description, if it is loaded on demand */
+        public int descriptionHash;
     }
 }
@@ -50,6 +50,33 @@ public class DateConstants implements Serializable {
         return new Date(date.y -1900, date.m -1, date.d, date.t.h, date.t.m, date.t.s);
     }
 
+    /**
+     * @param minutes Wall clock minutes since 1970-01-01 00:00
+     * @return The date and time in the browser time zone
+     */
+    public static Date toClientDateTime(int minutes) {
+        int days = floorDiv(minutes, DAYINMINUTES);
+        int minuteOfDay = minutes - days * DAYINMINUTES;
+
+        // civil date of an epoch day, see http://howardhinnant.github.io/date_algorithms.html
+        int z = days + 719468;
+        int era = floorDiv(z, 146097);
+        int doe = z - era * 146097;
+        int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        int mp = (5 * doy + 2) / 153;
+        int day = doy - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yoe + era * 400 + (month <= 2 ? 1 : 0);
+
+        return new Date(year - 1900, month - 1, day, minuteOfDay / HOURINMINUTES, minuteOfDay % HOURINMINUTES, 0);
+    }
+
+    private static int floorDiv(int x, int y) {
+        int q = x / y;
+        return (x % y != 0 && (x < 0) != (y < 0)) ? q - 1 : q;
+    }
+
     public static CalDate toRPCDateTime(Date date) {
         return new CalDate(date.getYear() + 1900, date.getMonth() + 1, date.getDate(),
                 new CalTime(date.getHours(), date.getMinutes(), date.getSeconds()));
@@ -230,6 +230,36 @@ public class VCalendar extends Composite implements VHasDropHandler {
         void scroll(int scrollPosition);
     }
 
+    /**
+     * Listener interface for listening to week scroll items of the month
+     * view.
+     */
+    public interface WeekScrollListener {
+        /**
+         * Triggered when the month view should show other weeks
+         *
+         * @param weeks
+         *            The number of weeks to move, negative to move backwards
+         */
+        void weekScroll(int weeks);
+    }
+
+    /**
+     * Listener interface for listening to the visible time of the day in the
+     * week view.
+     */
+    public interface VisibleTimeListener {
+        /**
+         * Triggered when the visible time of the day is not loaded
+         *
+         * @param firstMinute
+         *            The first visible minute of the day
+         * @param lastMinute
+         *            The last visible minute of the day
+         */
+        void visibleTimeChanged(int firstMinute, int lastMinute);
+    }
+
     /**
      * Listener interface for listening to mouse items.
      */
@@ -465,6 +495,59 @@ public class VCalendar extends Composite implements VHasDropHandler {
         addItemToMonthGrid(changedItem, true);
     }
 
+    /**
+     * Patch the current view with changed items instead of rendering it again.
+     * Changed items must be passed as removed (old instance) and added (new
+     * instance).
+     *
+     * @param removed
+     *            The items to remove from the view
+     * @param added
+     *            The items to add to the view
+     * @return true if the view was patched, false if it has to be rendered
+     *         again
+     */
+    public boolean updateItems(Collection<CalendarItem> removed, Collection<CalendarItem> added) {
+
+        if (monthGrid != null) {
+
+            for (CalendarItem item : removed) {
+                removeMonthItem(item, false);
+            }
+            updateItemsToMonthGrid(added, false);
+            reDrawAllMonthItems(true);
+
+            return true;
+        }
+
+        if (weekGrid != null) {
+
+            // all day items are laid out together, so they can not be patched
+            for (CalendarItem item : removed) {
+                if (item.isAllDay()) {
+                    return false;
+                }
+            }
+            for (CalendarItem item : added) {
+                if (item.isAllDay()) {
+                    return false;
+                }
+            }
+
+            for (CalendarItem item : removed) {
+                weekGrid.removeItem(item);
+            }
+            for (CalendarItem item : sortItems(added)) {
+                weekGrid.addItem(item);
+            }
+            weekGrid.recalculateItemWidths();
+
+            return true;
+        }
+
+        return false;
+    }
+
     /**
      * Sort the items by current sort order
      *
@@ -548,7 +631,7 @@ public class VCalendar extends Composite implements VHasDropHandler {
 
             dayToolbar.add(realDayNames[dayOfWeek - 1], date, day.getLocalizedDateFormat(), isToday ? "today" : null);
             weeklyLongEvents.addDate(date);
-            weekGrid.addDate(date, day.getStyledSlots());
+            weekGrid.addDate(date, day);
 
             if (isToday) {
                 weekGrid.setToday(date, today);
@@ -1066,6 +1149,7 @@ public class VCalendar extends Composite implements VHasDropHandler {
 
         weeklyLongEvents = null;
         weekGrid = null;
+        weekScrollPending = false;
 
         updateMonthGrid(daysInMonth, days, today);
 
@@ -1245,6 +1329,128 @@ public class VCalendar extends Composite implements VHasDropHandler {
         this.scrollListener = scrollListener;
     }
 
+    private WeekScrollListener weekScrollListener;
+    private boolean weekScrollEnabled = false;
+    private boolean weekScrollPending = false;
+
+    /**
+     * Get the listener that listens to week scrolling in the month view
+     *
+     * @return the listener
+     */
+    public WeekScrollListener getWeekScrollListener() {
+        return weekScrollListener;
+    }
+
+    /**
+     * Set the listener that listens to week scrolling in the month view
+     *
+     * @param weekScrollListener
+     *            The listener to use
+     */
+    public void setListener(WeekScrollListener weekScrollListener) {
+        this.weekScrollListener = weekScrollListener;
+    }
+
+    /**
+     * Is the month view scrolled by weeks
+     *
+     * @return true if the month view shows a window of a longer date range
+     */
+    public boolean isWeekScrollEnabled() {
+        return weekScrollEnabled;
+    }
+
+    /**
+     * Set if the month view is scrolled by weeks
+     *
+     * @param weekScrollEnabled
+     *            true if the month view shows a window of a longer date range
+     */
+    public void setWeekScrollEnabled(boolean weekScrollEnabled) {
+        this.weekScrollEnabled = weekScrollEnabled;
+    }
+
+    /**
+     * Request other weeks for the month view. Only one request is sent until
+     * the server has handled it.
+     *
+     * @param weeks
+     *            The number of weeks to move, negative to move backwards
+     */
+    public void scrollWeeks(int weeks) {
+        if (weekScrollEnabled && !weekScrollPending && weekScrollListener != null) {
+            weekScrollPending = true;
+            weekScrollListener.weekScroll(weeks);
+        }
+    }
+
+    /**
+     * Allow the next week scroll request, after the server has handled the
+     * last one.
+     */
+    public void weekScrollHandled() {
+        weekScrollPending = false;
+    }
+
+    private VisibleTimeListener visibleTimeListener;
+    private int loadedFromMinute = -1;
+    private int loadedToMinute = -1;
+    private boolean visibleTimePending = false;
+
+    /**
+     * Set the listener that listens to the visible time of the day
+     *
+     * @param visibleTimeListener
+     *            The listener to use
+     */
+    public void setListener(VisibleTimeListener visibleTimeListener) {
+        this.visibleTimeListener = visibleTimeListener;
+    }
+
+    /**
+     * Set the time of the day for which items are loaded. The week view
+     * requests other times of the day when they become visible.
+     *
+     * @param fromMinute
+     *            The first loaded minute of the day, -1 if all items are
+     *            loaded
+     * @param toMinute
+     *            The last loaded minute of the day
+     */
+    public void setLoadedTimeRange(int fromMinute, int toMinute) {
+        loadedFromMinute = fromMinute;
+        loadedToMinute = toMinute;
+        visibleTimePending = false;
+    }
+
+    /**
+     * Allow the next request for the visible time of the day, after the
+     * server has handled the last one.
+     */
+    public void visibleTimeHandled() {
+        visibleTimePending = false;
+    }
+
+    /**
+     * Request items for the visible time of the day if they are not loaded.
+     * Only one request is sent until the server has handled it.
+     *
+     * @param firstMinute
+     *            The first visible minute of the day
+     * @param lastMinute
+     *            The last visible minute of the day
+     */
+    public void visibleTimeChanged(int firstMinute, int lastMinute) {
+        if (loadedFromMinute < 0 || visibleTimePending || visibleTimeListener == null) {
+            return;
+        }
+        if (firstMinute < loadedFromMinute || lastMinute > loadedToMinute) {
+            visibleTimePending = true;
+            visibleTimeListener.visibleTimeChanged(firstMinute, lastMinute);
+        }
+    }
+
     private ItemResizeListener itemResizeListener;
 
     /**
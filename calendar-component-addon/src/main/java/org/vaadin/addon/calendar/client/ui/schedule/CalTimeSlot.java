@@ -4,7 +4,11 @@ import java.io.Serializable;
 
 /**
  * A styled time slot on a day
+ *
+ * @deprecated Time blocks are stored as slot bitmasks, see
+ *             {@link CalendarDay#getTimeBlockStyle(int)}
  */
+@Deprecated
 public class CalTimeSlot implements Serializable {
 
     public long start;
@@ -15,10 +15,10 @@
  */
 package org.vaadin.addon.calendar.client.ui.schedule;
 
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
-import java.util.Set;
 
 import org.vaadin.addon.calendar.client.CalendarState;
 
@@ -36,19 +36,72 @@ public class CalendarDay {
     private int dayOfWeek;
     private int week;
     private int yearOfWeek;
-    private Map<Long, CalTimeSlot> styledSlots;
+    private String[] timeBlockStyles;
+    private long[] timeBlockSlots;
 
-    public CalendarDay(Date date, String localizedDateFormat, int dayOfWeek, int week, int yearOfWeek, Set<CalendarState.SlotStyle> slotStyles) {
+    /** Length of a time block slot */
+    private static final long SLOT_MILLIS = 30 * 60 * 1000;
+
+    public CalendarDay(Date date, String localizedDateFormat, int dayOfWeek, int week, int yearOfWeek,
+                       String[] timeBlockStyles, long[] timeBlockSlots) {
         super();
         this.date = date;
         this.localizedDateFormat = localizedDateFormat;
         this.dayOfWeek = dayOfWeek;
         this.week = week;
         this.yearOfWeek = yearOfWeek;
+        this.timeBlockStyles = timeBlockStyles;
+        this.timeBlockSlots = timeBlockSlots;
+    }
+
+    /**
+     * @deprecated Use
+     *             {@link #CalendarDay(Date, String, int, int, int, String[], long[])}
+     *             with the slot bitmasks of the styles
+     */
+    @Deprecated
+    public CalendarDay(Date date, String localizedDateFormat, int dayOfWeek, int week, int yearOfWeek,
+                       Collection<CalendarState.SlotStyle> slotStyles) {
+        this(date, localizedDateFormat, dayOfWeek, week, yearOfWeek, null, null);
 
-        this.styledSlots = new HashMap<>();
+        Map<String, Long> masks = new LinkedHashMap<>();
         for (CalendarState.SlotStyle slot : slotStyles) {
-            styledSlots.put(slot.slotStart, new CalTimeSlot(slot.slotStart, slot.styleName));
+            addSlot(masks, slot.slotStart, slot.styleName);
+        }
+        setTimeBlocks(masks);
+    }
+
+    /**
+     * Create a day with the given styled slots, the key of a slot is its
+     * start in milliseconds after midnight.
+     */
+    static CalendarDay fromStyledSlots(Date date, Map<Long, CalTimeSlot> styledSlots) {
+        CalendarDay day = new CalendarDay(date, null, 0, 0, 0, null, null);
+
+        Map<String, Long> masks = new LinkedHashMap<>();
+        for (Map.Entry<Long, CalTimeSlot> slot : styledSlots.entrySet()) {
+            addSlot(masks, slot.getKey(), slot.getValue().style);
+        }
+        day.setTimeBlocks(masks);
+        return day;
+    }
+
+    private static void addSlot(Map<String, Long> masks, long slotStart, String style) {
+        long slot = slotStart / SLOT_MILLIS;
+        // slots outside of the day are ignored
+        if (slotStart >= 0 && slot < 64) {
+            Long mask = masks.get(style);
+            masks.put(style, (mask == null ? 0 : mask) | 1L << slot);
+        }
+    }
+
+    private void setTimeBlocks(Map<String, Long> masks) {
+        timeBlockStyles = new String[masks.size()];
+        timeBlockSlots = new long[masks.size()];
+        int i = 0;
+        for (Map.Entry<String, Long> mask : masks.entrySet()) {
+            timeBlockStyles[i] = mask.getKey();
+            timeBlockSlots[i++] = mask.getValue();
         }
     }
 
@@ -72,7 +125,36 @@ public class CalendarDay {
         return yearOfWeek;
     }
 
+    /**
+     * @param slot The half hour slot of the day, 0 is the slot starting at
+     *            midnight
+     * @return The style of the time block of the slot, or null
+     */
+    public String getTimeBlockStyle(int slot) {
+        if (timeBlockStyles != null) {
+            for (int i = 0; i < timeBlockStyles.length; i++) {
+                if ((timeBlockSlots[i] >>> slot & 1) != 0) {
+                    return timeBlockStyles[i];
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The styled slots of the day, by their start in milliseconds
+     * after midnight
+     * @deprecated Use {@link #getTimeBlockStyle(int)}
+     */
+    @Deprecated
     public Map<Long, CalTimeSlot> getStyledSlots() {
+        Map<Long, CalTimeSlot> styledSlots = new LinkedHashMap<>();
+        for (int slot = 0; slot < 48; slot++) {
+            String style = getTimeBlockStyle(slot);
+            if (style != null) {
+                styledSlots.put(slot * SLOT_MILLIS, new CalTimeSlot(slot * SLOT_MILLIS, style));
+            }
+        }
         return styledSlots;
     }
 }
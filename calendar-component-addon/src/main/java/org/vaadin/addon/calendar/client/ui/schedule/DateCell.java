@@ -102,7 +102,15 @@ public class DateCell extends FocusableComplexPanel
         }
     }
 
+    /**
+     * @deprecated Use {@link #DateCell(WeekGrid, Date, CalendarDay)}
+     */
+    @Deprecated
     public DateCell(WeekGrid parent, Date date, Map<Long, CalTimeSlot> timeSlotStyles) {
+        this(parent, date, CalendarDay.fromStyledSlots(date, timeSlotStyles));
+    }
+
+    public DateCell(WeekGrid parent, Date date, CalendarDay day) {
         weekgrid = parent;
         Element mainElement = DOM.createDiv();
         setElement(mainElement);
@@ -133,9 +141,9 @@ public class DateCell extends FocusableComplexPanel
 
             DateCellSlot slot = new DateCellSlot(this, new Date(start), new Date(end));
             if (i % 2 == 0) {
-                slot.setStyleName("v-datecellslot-even" + getStyledTimeSlot(start-dateTime, timeSlotStyles));
+                slot.setStyleName("v-datecellslot-even" + getStyledTimeSlot(firstHour * 2 + i, day));
             } else {
-                slot.setStyleName("v-datecellslot" + getStyledTimeSlot(start-dateTime, timeSlotStyles));
+                slot.setStyleName("v-datecellslot" + getStyledTimeSlot(firstHour * 2 + i, day));
             }
 
             Event.sinkEvents(slot.getElement(), Event.MOUSEEVENTS);
@@ -151,10 +159,22 @@ public class DateCell extends FocusableComplexPanel
         Event.sinkEvents(mainElement, Event.MOUSEEVENTS);
     }
 
+    /**
+     * @deprecated Not called anymore, the style of a slot is looked up with
+     *             {@link #getStyledTimeSlot(int, CalendarDay)}. Override that
+     *             method instead.
+     */
+    @Deprecated
     protected String getStyledTimeSlot(long time, Map<Long, CalTimeSlot> timeSlotStyles) {
+        return getStyledTimeSlot((int) (time / (30 * 60 * 1000)),
+                CalendarDay.fromStyledSlots(getDate(), timeSlotStyles));
+    }
+
+    protected String getStyledTimeSlot(int slot, CalendarDay day) {
 
-        if (timeSlotStyles.keySet().contains(time)) {
-            return " " + timeSlotStyles.get(time).style;
+        String style = day.getTimeBlockStyle(slot);
+        if (style != null) {
+            return " " + style;
         }
         return "";
     }
@@ -18,6 +18,8 @@ package org.vaadin.addon.calendar.client.ui.schedule;
 import com.google.gwt.event.dom.client.KeyCodes;
 import com.google.gwt.event.dom.client.KeyDownEvent;
 import com.google.gwt.event.dom.client.KeyDownHandler;
+import com.google.gwt.event.dom.client.MouseWheelEvent;
+import com.google.gwt.event.dom.client.MouseWheelHandler;
 import com.google.gwt.event.shared.HandlerRegistration;
 import org.vaadin.addon.calendar.client.DateConstants;
 import org.vaadin.addon.calendar.client.ui.VCalendar;
@@ -31,7 +33,7 @@ import java.util.logging.Logger;
  * @author Vaadin Ltd.
  *
  */
-public class MonthGrid extends FocusableGrid implements KeyDownHandler {
+public class MonthGrid extends FocusableGrid implements KeyDownHandler, MouseWheelHandler {
 
     private SimpleDayCell selectionStart;
     private SimpleDayCell selectionEnd;
@@ -39,6 +41,7 @@ public class MonthGrid extends FocusableGrid implements KeyDownHandler {
     private boolean rangeSelectDisabled;
     private boolean enabled = true;
     private final HandlerRegistration keyDownHandler;
+    private final HandlerRegistration mouseWheelHandler;
 
     public MonthGrid(VCalendar parent, int rows, int columns) {
         super(rows, columns);
@@ -48,11 +51,13 @@ public class MonthGrid extends FocusableGrid implements KeyDownHandler {
         setStylePrimaryName("v-calendar-month");
 
         keyDownHandler = addKeyDownHandler(this);
+        mouseWheelHandler = addDomHandler(this, MouseWheelEvent.getType());
     }
 
     @Override
     protected void onUnload() {
         keyDownHandler.removeHandler();
+        mouseWheelHandler.removeHandler();
         super.onUnload();
     }
 
@@ -219,6 +224,14 @@ public class MonthGrid extends FocusableGrid implements KeyDownHandler {
         }
     }
 
+    @Override
+    public void onMouseWheel(MouseWheelEvent event) {
+        if (calendar.isWeekScrollEnabled() && event.getDeltaY() != 0) {
+            event.preventDefault();
+            calendar.scrollWeeks(event.isNorth() ? -1 : 1);
+        }
+    }
+
     public int getDayCellIndex(SimpleDayCell dayCell) {
         int rows = getRowCount();
         int cells = getCellCount(0);
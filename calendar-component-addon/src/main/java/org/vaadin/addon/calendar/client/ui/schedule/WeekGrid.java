@@ -94,6 +94,7 @@ public class WeekGrid extends SimplePanel {
                         content.removeStyleName("scrolled");
                     }
                 }
+                updateVisibleTime();
             });
 
             setWidget(scrollPanel);
@@ -124,8 +125,16 @@ public class WeekGrid extends SimplePanel {
         return width;
     }
 
+    /**
+     * @deprecated Use {@link #addDate(Date, CalendarDay)}
+     */
+    @Deprecated
     public void addDate(Date d, Map<Long, CalTimeSlot> timeSlotStyles) {
-        final DateCell dc = new DateCell(this, d, timeSlotStyles);
+        addDate(d, CalendarDay.fromStyledSlots(d, timeSlotStyles));
+    }
+
+    public void addDate(Date d, CalendarDay day) {
+        final DateCell dc = new DateCell(this, d, day);
         dc.setDisabled(isDisabled());
         dc.setHorizontalSized(isHorizontalScrollable() || width < 0);
         dc.setVerticalSized(isVerticalScrollable());
@@ -199,6 +208,50 @@ public class WeekGrid extends SimplePanel {
             timebar.setCellHeights(cellHeights);
             timebar.setHeightPX(height);
         }
+
+        updateVisibleTime();
+    }
+
+    /**
+     * Reports the visible time of the day to the calendar. Without vertical
+     * scrolling all visible hours are shown.
+     */
+    public void updateVisibleTime() {
+        if (cellHeights == null) {
+            return;
+        }
+
+        int firstMinute = firstHour * DateConstants.HOURINMINUTES;
+        int lastMinute = (lastHour + 1) * DateConstants.HOURINMINUTES;
+
+        if (isVerticalScrollable()) {
+            ScrollPanel scrollPanel = (ScrollPanel) wrapper;
+            int top = scrollPanel.getVerticalScrollPosition();
+            firstMinute = getMinutesForPixelTop(top);
+            lastMinute = getMinutesForPixelTop(top + scrollPanel.getOffsetHeight());
+        }
+
+        calendar.visibleTimeChanged(firstMinute, lastMinute);
+    }
+
+    /**
+     * @param pixelTop A position from the top of the grid
+     * @return The minute of the day at the given position
+     */
+    public int getMinutesForPixelTop(int pixelTop) {
+        int minutes = firstHour * DateConstants.HOURINMINUTES;
+        int lastMinute = (lastHour + 1) * DateConstants.HOURINMINUTES;
+
+        for (int slot = 0; slot < cellHeights.length && minutes < lastMinute; slot++) {
+            int slotHeight = cellHeights[slot] + dateCellBorder;
+            if (pixelTop < slotHeight) {
+                return minutes + (Math.max(0, pixelTop) * slotInMinutes) / Math.max(1, slotHeight);
+            }
+            pixelTop -= slotHeight;
+            minutes += slotInMinutes;
+        }
+
+        return Math.min(minutes, lastMinute);
     }
 
     public void clearDates() {
@@ -311,6 +364,27 @@ public class WeekGrid extends SimplePanel {
         }
     }
 
+    public void removeItem(CalendarItem e) {
+        int dateCount = content.getWidgetCount();
+        for (int i = 1; i < dateCount; i++) {
+            DateCell dc = (DateCell) content.getWidget(i);
+            // items are the only widgets in a date cell
+            for (int j = dc.getWidgetCount() - 1; j >= 0; j--) {
+                DateCellDayItem dayItem = (DateCellDayItem) dc.getWidget(j);
+                if (dayItem.getCalendarItem() == e) {
+                    dc.removeEvent(dayItem);
+                }
+            }
+        }
+    }
+
+    public void recalculateItemWidths() {
+        int dateCount = content.getWidgetCount();
+        for (int i = 1; i < dateCount; i++) {
+            ((DateCell) content.getWidget(i)).recalculateItemWidths();
+        }
+    }
+
     public int getPixelLengthFor(int startFromMinutes, int durationInMinutes) {
         int pixelLength = 0;
         int currentSlot = 0;
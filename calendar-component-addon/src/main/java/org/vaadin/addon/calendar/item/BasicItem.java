@@ -16,8 +16,8 @@
 package org.vaadin.addon.calendar.item;
 
 import java.time.ZonedDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Simple implementation of {@link CalendarItem
@@ -38,6 +38,9 @@ public class BasicItem implements EditableCalendarItem {
 
     private boolean isAllDay;
 
+    private int batchDepth = 0;
+    private boolean changedInBatch = false;
+
     /**
      * Default constructor
      */
@@ -217,11 +220,36 @@ public class BasicItem implements EditableCalendarItem {
         fireEventChange();
     }
 
+    /**
+     * Applies several changes to this item, but fires only one change event
+     * at the end. Batches may be nested.
+     *
+     * @param changes
+     *            The changes to apply
+     */
+    public void batch(Runnable changes) {
+        batchDepth++;
+        try {
+            changes.run();
+        } finally {
+            batchDepth--;
+            if (batchDepth == 0 && changedInBatch) {
+                changedInBatch = false;
+                fireEventChange();
+            }
+        }
+    }
+
     /**
      * Fires an event change event to the listeners. Should be triggered when
      * some property of the event changes.
      */
     protected void fireEventChange() {
+        if (batchDepth > 0) {
+            changedInBatch = true;
+            return;
+        }
+
         ItemChangedEvent<EditableCalendarItem> event = new ItemChangedEvent<>(this);
 
         for (ItemChangeListener listener : notifier.getListeners()) {
@@ -238,7 +266,7 @@ public class BasicItem implements EditableCalendarItem {
 
     private class Notify implements ItemChangeNotifier {
 
-        private transient List<ItemChangeListener> listeners = new ArrayList<>();
+        private transient List<ItemChangeListener> listeners = new CopyOnWriteArrayList<>();
 
         public List<ItemChangeListener> getListeners() {
             return listeners;
@@ -18,9 +18,16 @@ package org.vaadin.addon.calendar.item;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.vaadin.addon.calendar.item.CalendarItemProvider.ItemSetChangedEvent.ChangeType;
+
 /**
  * <p>
  * {@link ItemSetChangedNotifier
@@ -44,6 +51,13 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
 
     private List<ItemSetChangedListener> listeners = new ArrayList<>();
 
+    private int batchDepth = 0;
+
+    /**
+     * The changes of the current batch, null if nothing has changed yet.
+     */
+    private List<ItemSetChangedEvent<ITEM>> batchEvents;
+
     /*
      * (non-Javadoc)
      *
@@ -115,7 +129,24 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
      * added or removed to the event provider
      */
     protected void fireItemSetChanged() {
-        ItemSetChangedEvent<ITEM> changeEvent = new ItemSetChangedEvent<>(this);
+        fireItemSetChanged(new ItemSetChangedEvent<>(this));
+    }
+
+    /**
+     * Fires the given change event to all listeners
+     *
+     * @param changeEvent
+     *            The event describing the change
+     */
+    protected void fireItemSetChanged(ItemSetChangedEvent<ITEM> changeEvent) {
+        if (batchDepth > 0) {
+            if (batchEvents == null) {
+                batchEvents = new ArrayList<>();
+            }
+            batchEvents.add(changeEvent);
+            return;
+        }
+
         for (ItemSetChangedListener listener : listeners) {
             listener.itemSetChanged(changeEvent);
         }
@@ -130,9 +161,10 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
      * (org.vaadin.addon.calendar.ui.CalendarComponentEvents.EventSetChange)
      */
     @Override
+    @SuppressWarnings("unchecked")
     public void itemChanged(EditableCalendarItem.ItemChangedEvent changedEvent) {
-        // naive implementation
-        fireItemSetChanged();
+        ITEM item = (ITEM) changedEvent.getCalendarEvent();
+        fireItemSetChanged(new ItemSetChangedEvent<>(this, ChangeType.CHANGED, Collections.singletonList(item)));
     }
 
     /*
@@ -148,7 +180,7 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
 
         item.getNotifier().addListener(this);
 
-        fireItemSetChanged();
+        fireItemSetChanged(new ItemSetChangedEvent<>(this, ChangeType.ADDED, Collections.singletonList(item)));
     }
 
     /*
@@ -164,7 +196,62 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
 
         item.getNotifier().removeListener(this);
 
-        fireItemSetChanged();
+        fireItemSetChanged(new ItemSetChangedEvent<>(this, ChangeType.REMOVED, Collections.singletonList(item)));
+    }
+
+    /**
+     * Applies the changes and fires a single change event at the end. See
+     * {@link ChangeType} for the type of the event. Batches may be nested.
+     *
+     * @param changes The changes to apply
+     */
+    @Override
+    public void batch(Runnable changes) {
+        batchDepth++;
+        try {
+            changes.run();
+        } finally {
+            batchDepth--;
+            if (batchDepth == 0 && batchEvents != null) {
+                List<ItemSetChangedEvent<ITEM>> events = batchEvents;
+                batchEvents = null;
+                fireItemSetChanged(consolidate(this, events));
+            }
+        }
+    }
+
+    /**
+     * Merge the events of a batch into one event.
+     */
+    static <ITEM extends CalendarItem> ItemSetChangedEvent<ITEM> consolidate(CalendarItemProvider<ITEM> source,
+            List<ItemSetChangedEvent<ITEM>> events) {
+
+        Map<ChangeType, Set<ITEM>> itemsByType = new EnumMap<>(ChangeType.class);
+
+        for (ItemSetChangedEvent<ITEM> event : events) {
+            if (event.getChangeType() == ChangeType.RESET) {
+                return new ItemSetChangedEvent<>(source);
+            }
+            itemsByType.computeIfAbsent(event.getChangeType(),
+                    type -> Collections.newSetFromMap(new IdentityHashMap<>())).addAll(event.getItems());
+        }
+
+        // changes of added or removed items are part of the addition or removal
+        Set<ITEM> changed = itemsByType.get(ChangeType.CHANGED);
+        if (changed != null) {
+            changed.removeAll(itemsByType.getOrDefault(ChangeType.ADDED, Collections.emptySet()));
+            changed.removeAll(itemsByType.getOrDefault(ChangeType.REMOVED, Collections.emptySet()));
+            if (changed.isEmpty() && itemsByType.size() > 1) {
+                itemsByType.remove(ChangeType.CHANGED);
+            }
+        }
+
+        if (itemsByType.size() > 1) {
+            return new ItemSetChangedEvent<>(source);
+        }
+
+        Map.Entry<ChangeType, Set<ITEM>> change = itemsByType.entrySet().iterator().next();
+        return new ItemSetChangedEvent<>(source, change.getKey(), change.getValue());
     }
 
     public void setItems(Collection<ITEM> items) {
@@ -174,6 +261,6 @@ public class BasicItemProvider<ITEM extends BasicItem> implements
             item.getNotifier().addListener(this);
         }
 
-        fireItemSetChanged();
+        fireItemSetChanged(new ItemSetChangedEvent<>(this, ChangeType.ADDED, items));
     }
 }
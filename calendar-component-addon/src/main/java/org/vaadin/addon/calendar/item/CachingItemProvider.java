@@ -0,0 +1,361 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link CalendarItemProvider} which caches the items of another provider.
+ * <p>
+ * The items are cached in buckets of one week, starting on monday. A query
+ * loads only the buckets which are not cached yet, so navigating back and
+ * forth does not query the wrapped provider again. The least recently used
+ * buckets are evicted if more than the configured number of buckets is
+ * cached. When the wrapped provider fires an {@link ItemSetChangedEvent},
+ * only the weeks which contain or overlap the affected items are dropped.
+ * <p>
+ * If a prefetch executor is set, the periods before and after each queried
+ * range are loaded in the background. The wrapped provider must support
+ * concurrent queries in this case.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+@SuppressWarnings("serial")
+public class CachingItemProvider<ITEM extends CalendarItem> implements
+        CalendarItemProvider<ITEM>,
+        CalendarItemProvider.ItemSetChangedNotifier,
+        CalendarItemProvider.ItemSetChangedListener {
+
+    /**
+     * Default number of cached weeks.
+     */
+    public static final int DEFAULT_MAX_BUCKETS = 64;
+
+    private final CalendarItemProvider<ITEM> delegate;
+
+    private final int maxBuckets;
+
+    private final Map<ZonedDateTime, List<ITEM>> buckets;
+
+    /**
+     * Incremented on each invalidation, so loads which started before are
+     * not cached.
+     */
+    private long generation = 0;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private transient Executor prefetchExecutor;
+
+    private List<ItemSetChangedListener> listeners = new ArrayList<>();
+
+    /**
+     * Cache the items of the given provider in up to
+     * {@link #DEFAULT_MAX_BUCKETS} weeks.
+     *
+     * @param delegate The provider to cache
+     */
+    public CachingItemProvider(CalendarItemProvider<ITEM> delegate) {
+        this(delegate, DEFAULT_MAX_BUCKETS);
+    }
+
+    /**
+     * Cache the items of the given provider.
+     *
+     * @param delegate The provider to cache
+     * @param maxBuckets The maximum number of cached weeks
+     */
+    public CachingItemProvider(CalendarItemProvider<ITEM> delegate, int maxBuckets) {
+
+        if (delegate == null) {
+            throw new IllegalArgumentException("Item provider cannot be null");
+        }
+        if (maxBuckets < 1) {
+            throw new IllegalArgumentException("At least one bucket must be cached");
+        }
+
+        this.delegate = delegate;
+        this.maxBuckets = maxBuckets;
+        this.buckets = new LinkedHashMap<ZonedDateTime, List<ITEM>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ZonedDateTime, List<ITEM>> eldest) {
+                return size() > CachingItemProvider.this.maxBuckets;
+            }
+        };
+
+        if (delegate instanceof ItemSetChangedNotifier) {
+            ((ItemSetChangedNotifier) delegate).addItemSetChangedListener(this);
+        }
+    }
+
+    @Override
+    public List<ITEM> getItems(ZonedDateTime startDate, ZonedDateTime endDate) {
+
+        List<ZonedDateTime> keys = getBucketKeys(startDate, endDate);
+        Map<ZonedDateTime, List<ITEM>> found = new LinkedHashMap<>();
+
+        synchronized (buckets) {
+            for (ZonedDateTime key : keys) {
+                List<ITEM> cached = buckets.get(key);
+                if (cached != null) {
+                    found.put(key, cached);
+                }
+            }
+        }
+
+        hits.addAndGet(found.size());
+        misses.addAndGet(keys.size() - found.size());
+
+        if (found.size() < keys.size()) {
+            List<ZonedDateTime> missing = new ArrayList<>(keys);
+            missing.removeAll(found.keySet());
+            found.putAll(load(missing));
+        }
+
+        if (prefetchExecutor != null) {
+            prefetch(startDate, endDate);
+        }
+
+        final long startRange = startDate.toEpochSecond();
+        final long endRange = endDate.toEpochSecond();
+
+        Set<ITEM> added = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ITEM> result = new ArrayList<>();
+
+        for (ZonedDateTime key : keys) {
+            for (ITEM item : found.get(key)) {
+                if (item.getStart().toEpochSecond() <= endRange
+                        && item.getEnd().toEpochSecond() >= startRange
+                        && added.add(item)) {
+                    result.add(item);
+                }
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * @return The first days of the weeks which overlap with the given range
+     */
+    private List<ZonedDateTime> getBucketKeys(ZonedDateTime startDate, ZonedDateTime endDate) {
+
+        ZonedDateTime key = startDate.toLocalDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY))
+                .atStartOfDay(startDate.getZone());
+
+        List<ZonedDateTime> keys = new ArrayList<>();
+        do {
+            keys.add(key);
+            key = key.plusWeeks(1);
+        } while (!key.isAfter(endDate));
+
+        return keys;
+    }
+
+    private ZonedDateTime getBucketEnd(ZonedDateTime key) {
+        return key.plusWeeks(1).minusNanos(1);
+    }
+
+    /**
+     * Load the given buckets from the wrapped provider. Consecutive buckets
+     * are loaded with one query.
+     */
+    private Map<ZonedDateTime, List<ITEM>> load(List<ZonedDateTime> keys) {
+
+        long loadGeneration;
+        synchronized (buckets) {
+            loadGeneration = generation;
+        }
+
+        Map<ZonedDateTime, List<ITEM>> loaded = new LinkedHashMap<>();
+
+        int first = 0;
+        while (first < keys.size()) {
+
+            int last = first;
+            while (last + 1 < keys.size() && keys.get(last + 1).equals(keys.get(last).plusWeeks(1))) {
+                last++;
+            }
+
+            List<ZonedDateTime> run = keys.subList(first, last + 1);
+            List<ITEM> items = delegate.getItems(run.get(0), getBucketEnd(run.get(run.size() - 1)));
+
+            for (ZonedDateTime key : run) {
+                long startRange = key.toEpochSecond();
+                long endRange = getBucketEnd(key).toEpochSecond();
+                List<ITEM> bucket = new ArrayList<>();
+                for (ITEM item : items) {
+                    if (item.getStart().toEpochSecond() <= endRange && item.getEnd().toEpochSecond() >= startRange) {
+                        bucket.add(item);
+                    }
+                }
+                loaded.put(key, Collections.unmodifiableList(bucket));
+            }
+
+            first = last + 1;
+        }
+
+        synchronized (buckets) {
+            if (loadGeneration == generation) {
+                buckets.putAll(loaded);
+            }
+        }
+
+        return loaded;
+    }
+
+    /**
+     * Load the periods before and after the given range in the background.
+     */
+    private void prefetch(ZonedDateTime startDate, ZonedDateTime endDate) {
+
+        long days = Duration.between(startDate, endDate).toDays() + 1;
+
+        List<ZonedDateTime> keys = new ArrayList<>(getBucketKeys(startDate.minus(days, ChronoUnit.DAYS), startDate));
+        keys.addAll(getBucketKeys(endDate, endDate.plus(days, ChronoUnit.DAYS)));
+
+        List<ZonedDateTime> missing = new ArrayList<>();
+        synchronized (buckets) {
+            for (ZonedDateTime key : keys) {
+                if (!buckets.containsKey(key) && !missing.contains(key)) {
+                    missing.add(key);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Collections.sort(missing);
+            prefetchExecutor.execute(() -> load(missing));
+        }
+    }
+
+    /**
+     * Set the executor which loads the periods before and after each queried
+     * range. The wrapped provider is then queried concurrently. Set to null
+     * to disable prefetching, which is the default.
+     *
+     * @param prefetchExecutor The executor, or null
+     */
+    public void setPrefetchExecutor(Executor prefetchExecutor) {
+        this.prefetchExecutor = prefetchExecutor;
+    }
+
+    /**
+     * @return The executor which loads adjacent periods, or null
+     */
+    public Executor getPrefetchExecutor() {
+        return prefetchExecutor;
+    }
+
+    /**
+     * Drop all cached items.
+     */
+    public void invalidate() {
+        synchronized (buckets) {
+            generation++;
+            buckets.clear();
+        }
+    }
+
+    /**
+     * @return The number of weeks which were answered from the cache
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of weeks which were loaded from the wrapped provider
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * @return The number of cached weeks
+     */
+    public int getCachedBucketCount() {
+        synchronized (buckets) {
+            return buckets.size();
+        }
+    }
+
+    /**
+     * @return The wrapped provider
+     */
+    public CalendarItemProvider<ITEM> getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Drop the cached weeks which contain or overlap the given items.
+     *
+     * @param items The added, removed or changed items
+     */
+    public void invalidate(Collection<? extends ITEM> items) {
+
+        Set<ITEM> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+        affected.addAll(items);
+
+        synchronized (buckets) {
+            generation++;
+            buckets.entrySet().removeIf(bucket -> {
+                long startRange = bucket.getKey().toEpochSecond();
+                long endRange = getBucketEnd(bucket.getKey()).toEpochSecond();
+                for (ITEM item : affected) {
+                    if (item.getStart().toEpochSecond() <= endRange && item.getEnd().toEpochSecond() >= startRange) {
+                        return true;
+                    }
+                }
+                for (ITEM item : bucket.getValue()) {
+                    if (affected.contains(item)) {
+                        return true;
+                    }
+                }
+                return false;
+            });
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void itemSetChanged(ItemSetChangedEvent changeEvent) {
+
+        ItemSetChangedEvent<ITEM> source = changeEvent;
+        if (source.getChangeType() == ItemSetChangedEvent.ChangeType.RESET) {
+            invalidate();
+        } else {
+            invalidate(source.getItems());
+        }
+
+        ItemSetChangedEvent<ITEM> event = new ItemSetChangedEvent<>(this, source.getChangeType(), source.getItems());
+        for (ItemSetChangedListener listener : listeners) {
+            listener.itemSetChanged(event);
+        }
+    }
+
+    @Override
+    public void addItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.remove(listener);
+    }
+}
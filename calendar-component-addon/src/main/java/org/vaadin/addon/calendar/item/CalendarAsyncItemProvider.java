@@ -0,0 +1,41 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An item provider which loads its items in the background.
+ * <p>
+ * The calendar does not wait for the returned future while the session is
+ * locked. It shows a loading state and applies the items once the future
+ * completes. Enable server push to show the items without waiting for the
+ * next request from the client.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+@FunctionalInterface
+public interface CalendarAsyncItemProvider<ITEM extends CalendarItem> extends CalendarItemProvider<ITEM> {
+
+    /**
+     * Starts loading all items in the target date range between startDate
+     * and endDate.
+     *
+     * @param startDate
+     *            Start date
+     * @param endDate
+     *            End date
+     * @return A future which completes with the items
+     * @see CalendarItemProvider#getItems(ZonedDateTime, ZonedDateTime)
+     */
+    CompletableFuture<List<ITEM>> getItemsAsync(ZonedDateTime startDate, ZonedDateTime endDate);
+
+    /**
+     * Waits for the items of {@link #getItemsAsync(ZonedDateTime, ZonedDateTime)}.
+     */
+    @Override
+    default List<ITEM> getItems(ZonedDateTime startDate, ZonedDateTime endDate) {
+        return getItemsAsync(startDate, endDate).join();
+    }
+}
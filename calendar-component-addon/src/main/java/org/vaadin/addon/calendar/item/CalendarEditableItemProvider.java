@@ -51,4 +51,16 @@ public interface CalendarEditableItemProvider<EDITITEM extends EditableCalendarI
      */
     void setItems(Collection<EDITITEM> items);
 
+    /**
+     * Applies several changes to the provider, for example adding many items
+     * or changing several properties of an item. Providers which notify
+     * listeners should fire a single consolidated change at the end. By
+     * default, the changes are just applied.
+     *
+     * @param changes The changes to apply
+     */
+    default void batch(Runnable changes) {
+        changes.run();
+    }
+
 }
@@ -17,6 +17,9 @@ package org.vaadin.addon.calendar.item;
 
 import java.io.Serializable;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -53,18 +56,67 @@ public interface CalendarItemProvider<ITEM extends CalendarItem> extends Seriali
      */
     List<ITEM> getItems(ZonedDateTime startDate, ZonedDateTime endDate);
 
+    /**
+     * Are the items of the given range, which were returned last, possibly
+     * outdated. A calendar shows stale items as such.
+     *
+     * @param startDate
+     *            Start date
+     * @param endDate
+     *            End date
+     * @return true if the last returned items of the range are stale
+     */
+    default boolean isStale(ZonedDateTime startDate, ZonedDateTime endDate) {
+        return false;
+    }
+
     /**
      * Item to signal that the set of items has changed and the calendar
      * should refresh its view from the CalendarItemProvider.
-     *
+     * <p>
+     * The event optionally tells which items were added, removed or changed,
+     * so listeners can ignore changes outside of their date range. An event
+     * of type {@link ChangeType#RESET} affects all items.
      */
     @SuppressWarnings("serial")
     class ItemSetChangedEvent<EVENT extends CalendarItem> implements Serializable {
 
+        /**
+         * The kind of a change.
+         * <p>
+         * The changes of a batch are merged into one event. If all changes
+         * have the same type, the event has this type. Changes of items which
+         * were added or removed in the same batch are part of the addition or
+         * removal. Any other mix of types, e.g. additions and removals, is
+         * merged into a {@link #RESET}.
+         */
+        public enum ChangeType {
+            ADDED, REMOVED, CHANGED, RESET
+        }
+
         private CalendarItemProvider<EVENT> source;
 
+        private final ChangeType changeType;
+
+        private final Collection<EVENT> items;
+
         public ItemSetChangedEvent(CalendarItemProvider<EVENT> source) {
+            this(source, ChangeType.RESET, Collections.emptyList());
+        }
+
+        /**
+         * @param source
+         *            The provider which has changed
+         * @param changeType
+         *            The kind of the change
+         * @param items
+         *            The added, removed or changed items
+         */
+        public ItemSetChangedEvent(CalendarItemProvider<EVENT> source, ChangeType changeType,
+                                   Collection<? extends EVENT> items) {
             this.source = source;
+            this.changeType = changeType;
+            this.items = Collections.unmodifiableList(new ArrayList<>(items));
         }
 
         /**
@@ -73,6 +125,46 @@ public interface CalendarItemProvider<ITEM extends CalendarItem> extends Seriali
         public CalendarItemProvider<EVENT> getProvider() {
             return source;
         }
+
+        /**
+         * @return the kind of the change
+         */
+        public ChangeType getChangeType() {
+            return changeType;
+        }
+
+        /**
+         * @return the added, removed or changed items. Empty for
+         *         {@link ChangeType#RESET}.
+         */
+        public Collection<EVENT> getItems() {
+            return items;
+        }
+
+        /**
+         * Does this change affect items within the given range. Changed items
+         * are only checked at their new position.
+         *
+         * @param startDate
+         *            Start of the range
+         * @param endDate
+         *            End of the range
+         * @return true if the change may affect the given range
+         */
+        public boolean overlaps(ZonedDateTime startDate, ZonedDateTime endDate) {
+
+            if (changeType == ChangeType.RESET) {
+                return true;
+            }
+
+            for (EVENT item : items) {
+                if (!item.getStart().isAfter(endDate) && !item.getEnd().isBefore(startDate)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
     }
 
     /**
@@ -0,0 +1,248 @@
+package org.vaadin.addon.calendar.item;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.vaadin.addon.calendar.item.CalendarItemProvider.ItemSetChangedEvent.ChangeType;
+
+/**
+ * An item provider which can be shared by many sessions and modified from
+ * any thread.
+ * <p>
+ * Queries read an immutable snapshot of the items with an interval index and
+ * never wait for writers. Writers copy the snapshot and publish the copy, so
+ * this provider suits item sets which are queried much more often than they
+ * are modified. Use {@link #batch(Runnable)} to publish many changes at once.
+ * <p>
+ * Items are identified by identity, so adding an item twice has no effect.
+ * The change events are fired in the thread which made the change, after the
+ * new snapshot has been published.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+@SuppressWarnings("serial")
+public class ConcurrentItemProvider<ITEM extends BasicItem> implements
+        CalendarEditableItemProvider<ITEM>,
+        CalendarItemProvider.ItemSetChangedNotifier,
+        EditableCalendarItem.ItemChangeListener {
+
+    /**
+     * An immutable state of the provider. The index is built on the first
+     * query.
+     */
+    private static class Snapshot<ITEM extends BasicItem> implements Serializable {
+
+        private final List<ITEM> items;
+        private final Set<ITEM> members;
+        private transient volatile ItemIntervalIndex<ITEM> index;
+
+        private Snapshot(List<ITEM> items, Set<ITEM> members) {
+            this.items = items;
+            this.members = members;
+        }
+
+        private ItemIntervalIndex<ITEM> getIndex() {
+            ItemIntervalIndex<ITEM> current = index;
+            if (current == null) {
+                current = new ItemIntervalIndex<>(items);
+                index = current;
+            }
+            return current;
+        }
+    }
+
+    private volatile Snapshot<ITEM> snapshot = new Snapshot<>(Collections.emptyList(), Collections.emptySet());
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final List<ItemSetChangedListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * The changed copy of the items in an update, null if no item was added
+     * or removed yet. Removed items are only dropped from the members, the
+     * list is filtered once when the update is published. Only used by the
+     * thread holding the write lock.
+     */
+    private transient List<ITEM> batchItems;
+    private transient Set<ITEM> batchMembers;
+    private transient boolean batchRemoved;
+    private transient List<ItemSetChangedEvent<ITEM>> batchEvents;
+
+    @Override
+    public List<ITEM> getItems(ZonedDateTime startDate, ZonedDateTime endDate) {
+        return snapshot.getIndex().query(startDate, endDate);
+    }
+
+    /**
+     * @return An immutable list of all items
+     */
+    public List<ITEM> getAllItems() {
+        return snapshot.items;
+    }
+
+    /**
+     * Does this provider contain the given item
+     *
+     * @param item
+     *            The item to check for
+     * @return true if this very item was added to the provider
+     */
+    public boolean containsItem(ITEM item) {
+        return snapshot.members.contains(item);
+    }
+
+    @Override
+    public void addItem(ITEM item) {
+        setItems(Collections.singletonList(item));
+    }
+
+    @Override
+    public void setItems(Collection<ITEM> items) {
+
+        List<ITEM> added = new ArrayList<>();
+
+        update(() -> {
+            for (ITEM item : items) {
+                if (!getMembers().contains(item)) {
+                    copyOnWrite();
+                    batchMembers.add(item);
+                    batchItems.add(item);
+                    item.getNotifier().addListener(this);
+                    added.add(item);
+                }
+            }
+            if (!added.isEmpty()) {
+                batchEvents.add(new ItemSetChangedEvent<>(this, ChangeType.ADDED, added));
+            }
+        });
+    }
+
+    @Override
+    public void removeItem(ITEM item) {
+        update(() -> {
+            if (getMembers().contains(item)) {
+                copyOnWrite();
+                batchMembers.remove(item);
+                batchRemoved = true;
+                item.getNotifier().removeListener(this);
+                batchEvents.add(new ItemSetChangedEvent<>(this, ChangeType.REMOVED, Collections.singletonList(item)));
+            }
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void itemChanged(EditableCalendarItem.ItemChangedEvent changedEvent) {
+        ITEM item = (ITEM) changedEvent.getCalendarEvent();
+        update(() -> batchEvents.add(new ItemSetChangedEvent<>(this, ChangeType.CHANGED, Collections.singletonList(item))));
+    }
+
+    /**
+     * Applies the changes and publishes them at once. Other writers wait
+     * until the batch is done, queries still read the previous items. A
+     * single consolidated change event is fired at the end. Batches may be
+     * nested. If the changes fail, the changes made until then are still
+     * published and fired before the exception is thrown.
+     *
+     * @param changes The changes to apply
+     */
+    @Override
+    public void batch(Runnable changes) {
+        update(changes);
+    }
+
+    private void update(Runnable changes) {
+
+        ItemSetChangedEvent<ITEM> event = null;
+
+        try {
+            writeLock.lock();
+            try {
+                boolean outer = writeLock.getHoldCount() == 1;
+                if (outer) {
+                    batchEvents = new ArrayList<>();
+                }
+
+                try {
+                    changes.run();
+                } finally {
+                    if (outer) {
+                        if (batchItems != null) {
+                            List<ITEM> items = batchRemoved ? retainMembers(batchItems, batchMembers) : batchItems;
+                            snapshot = new Snapshot<>(Collections.unmodifiableList(items),
+                                    Collections.unmodifiableSet(batchMembers));
+                        } else if (!batchEvents.isEmpty()) {
+                            // changed items need a new index
+                            snapshot = new Snapshot<>(snapshot.items, snapshot.members);
+                        }
+                        if (!batchEvents.isEmpty()) {
+                            event = BasicItemProvider.consolidate(this, batchEvents);
+                        }
+                        batchItems = null;
+                        batchMembers = null;
+                        batchRemoved = false;
+                        batchEvents = null;
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            // also if the changes failed, the changes made until then are published
+            if (event != null) {
+                for (ItemSetChangedListener listener : listeners) {
+                    listener.itemSetChanged(event);
+                }
+            }
+        }
+    }
+
+    private Set<ITEM> getMembers() {
+        return batchMembers != null ? batchMembers : snapshot.members;
+    }
+
+    /**
+     * @return The items which are still members, in their order. An item
+     * which was removed and added again is kept once, at its new position.
+     */
+    private static <ITEM> List<ITEM> retainMembers(List<ITEM> items, Set<ITEM> members) {
+        Set<ITEM> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<ITEM> result = new ArrayList<>(members.size());
+        for (int i = items.size() - 1; i >= 0; i--) {
+            ITEM item = items.get(i);
+            if (members.contains(item) && retained.add(item)) {
+                result.add(item);
+            }
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    private void copyOnWrite() {
+        if (batchItems == null) {
+            Snapshot<ITEM> current = snapshot;
+            batchItems = new ArrayList<>(current.items);
+            batchMembers = Collections.newSetFromMap(new IdentityHashMap<>());
+            batchMembers.addAll(current.members);
+        }
+    }
+
+    @Override
+    public void addItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,667 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link CalendarItemProvider} which waits only a limited time for the
+ * items of another provider.
+ * <p>
+ * The wrapped provider is queried with the given executor. If it does not
+ * return the items within the deadline, the items which were returned last
+ * for the same range are returned instead and the range is
+ * {@link #isStale(ZonedDateTime, ZonedDateTime) stale}. Without such items,
+ * no items are returned. Once the query completes, an
+ * {@link ItemSetChangedEvent} with the previous and the new items of the
+ * range is fired, so the calendars query the fresh items.
+ * <p>
+ * The deadline applies to each query. After a query missed its deadline,
+ * further queries of the same thread do not wait for the wrapped provider
+ * for one more deadline. They return the last items at once and are
+ * refreshed when their query completes. A calendar with lazy item loading
+ * queries each shown day in the request thread, so it waits about one
+ * deadline in total instead of one per day. Queries of other threads, e.g.
+ * of other sessions, still wait.
+ * <p>
+ * After {@link #setFailureThreshold(int) repeated} timeouts or errors the
+ * wrapped provider is not queried anymore for the
+ * {@link #setOpenDuration(Duration) open duration}. Only the last returned
+ * items are returned in the meantime. Afterwards a single query is allowed,
+ * which closes the breaker again if it succeeds within the deadline.
+ * <p>
+ * If a stale range can not be refreshed, because its query failed or the
+ * breaker is open, an {@link ItemSetChangedEvent} for the range is fired
+ * after the {@link #setRetryDelay(Duration) retry delay}, at the earliest
+ * when the breaker closes, so the calendars query it again. When the breaker
+ * closes, this event is fired for all stale ranges at once. The retries are
+ * scheduled with the {@link #setRetryScheduler(ScheduledExecutorService)
+ * retry scheduler}. Without one, a stale range is only queried again when
+ * the calendar queries it by itself.
+ * <p>
+ * The last returned items of up to {@link #MAX_RANGES} ranges are kept.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+@SuppressWarnings("serial")
+public class DeadlineItemProvider<ITEM extends CalendarItem> implements
+        CalendarItemProvider<ITEM>,
+        CalendarItemProvider.ItemSetChangedNotifier,
+        CalendarItemProvider.ItemSetChangedListener {
+
+    /**
+     * Maximum number of ranges whose last items are kept.
+     */
+    public static final int MAX_RANGES = 64;
+
+    /**
+     * Default number of consecutive failures which open the breaker.
+     */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+
+    /**
+     * Default time the wrapped provider is not queried after the breaker
+     * opened.
+     */
+    public static final Duration DEFAULT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    /**
+     * Default time until a stale range, which could not be refreshed, is
+     * queried again.
+     */
+    public static final Duration DEFAULT_RETRY_DELAY = Duration.ofSeconds(5);
+
+    /**
+     * The last items of a range and the running query.
+     */
+    private static class Range<ITEM> {
+
+        private List<ITEM> items;
+        private boolean stale = false;
+        private boolean retry = false;
+        private CompletableFuture<List<ITEM>> query;
+    }
+
+    private final CalendarItemProvider<ITEM> delegate;
+
+    private transient Executor executor;
+
+    private transient volatile ScheduledExecutorService retryScheduler;
+
+    private volatile long deadlineNanos;
+
+    private volatile long retryDelayNanos = DEFAULT_RETRY_DELAY.toNanos();
+
+    /** The time a query of the thread last missed its deadline */
+    private transient ThreadLocal<Long> lateSince;
+
+    private final Map<List<ZonedDateTime>, Range<ITEM>> ranges =
+            new LinkedHashMap<List<ZonedDateTime>, Range<ITEM>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<ZonedDateTime>, Range<ITEM>> eldest) {
+                    return size() > MAX_RANGES;
+                }
+            };
+
+    private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private long openNanos = DEFAULT_OPEN_DURATION.toNanos();
+    private int failures = 0;
+    private long openedAt;
+
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong staleResults = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final List<ItemSetChangedListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Wait at most the given time for the items of the given provider. If
+     * the executor is a {@link ScheduledExecutorService}, it also schedules
+     * the retries of stale ranges.
+     *
+     * @param delegate The provider to query
+     * @param deadline The maximum time to wait for the items
+     * @param executor The executor which queries the wrapped provider
+     */
+    public DeadlineItemProvider(CalendarItemProvider<ITEM> delegate, Duration deadline, Executor executor) {
+
+        if (delegate == null) {
+            throw new IllegalArgumentException("Item provider cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+
+        this.delegate = delegate;
+        this.executor = executor;
+        if (executor instanceof ScheduledExecutorService) {
+            this.retryScheduler = (ScheduledExecutorService) executor;
+        }
+        setDeadline(deadline);
+
+        if (delegate instanceof ItemSetChangedNotifier) {
+            ((ItemSetChangedNotifier) delegate).addItemSetChangedListener(this);
+        }
+    }
+
+    @Override
+    public List<ITEM> getItems(ZonedDateTime startDate, ZonedDateTime endDate) {
+
+        List<ZonedDateTime> key = Arrays.asList(startDate, endDate);
+
+        if (!allowQuery()) {
+            rejected.incrementAndGet();
+            List<ITEM> items = getLastItems(key, null);
+            scheduleRetry(key);
+            return items;
+        }
+
+        CompletableFuture<List<ITEM>> query = query(key, startDate, endDate);
+
+        long wait = getWait();
+
+        try {
+            List<ITEM> items = query.get(wait, TimeUnit.NANOSECONDS);
+            if (recordSuccess()) {
+                retryStaleRanges();
+            }
+            return new ArrayList<>(items);
+
+        } catch (TimeoutException e) {
+            if (wait > 0) {
+                timeouts.incrementAndGet();
+                recordFailure();
+                getLateSince().set(System.nanoTime());
+            }
+
+        } catch (ExecutionException e) {
+            errors.incrementAndGet();
+            recordFailure();
+            getLogger().log(Level.WARNING, "Loading the calendar items failed", e.getCause());
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        List<ITEM> items = getLastItems(key, query);
+        if (query.isCompletedExceptionally()) {
+            scheduleRetry(key);
+        }
+        return items;
+    }
+
+    /**
+     * @return The time to wait for the query, which is zero if a query of
+     * the current thread missed its deadline less than a deadline ago
+     */
+    private long getWait() {
+
+        ThreadLocal<Long> late = getLateSince();
+        Long since = late.get();
+        if (since == null) {
+            return deadlineNanos;
+        }
+        if (System.nanoTime() - since < deadlineNanos) {
+            return 0;
+        }
+        late.remove();
+        return deadlineNanos;
+    }
+
+    private synchronized ThreadLocal<Long> getLateSince() {
+        if (lateSince == null) {
+            lateSince = new ThreadLocal<>();
+        }
+        return lateSince;
+    }
+
+    /**
+     * Start a query of the wrapped provider, unless one is running for the
+     * range.
+     */
+    private CompletableFuture<List<ITEM>> query(List<ZonedDateTime> key, ZonedDateTime startDate,
+                                                ZonedDateTime endDate) {
+
+        CompletableFuture<List<ITEM>> query;
+
+        synchronized (ranges) {
+            Range<ITEM> range = ranges.computeIfAbsent(key, k -> new Range<>());
+            if (range.query != null) {
+                return range.query;
+            }
+            query = new CompletableFuture<>();
+            range.query = query;
+        }
+
+        query.whenComplete((items, error) -> completed(key, query, items));
+
+        try {
+            executor.execute(() -> {
+                try {
+                    List<ITEM> items = delegate.getItems(startDate, endDate);
+                    query.complete(items == null ? Collections.emptyList()
+                            : Collections.unmodifiableList(new ArrayList<>(items)));
+                } catch (RuntimeException e) {
+                    query.completeExceptionally(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            query.completeExceptionally(e);
+        }
+
+        return query;
+    }
+
+    private void completed(List<ZonedDateTime> key, CompletableFuture<List<ITEM>> query, List<ITEM> items) {
+
+        List<ITEM> previous;
+        boolean retry;
+
+        synchronized (ranges) {
+            Range<ITEM> range = ranges.get(key);
+            if (range == null || range.query != query) {
+                return;
+            }
+            range.query = null;
+            if (items == null) {
+                // keep the last items, and query them again later
+                retry = range.stale;
+                previous = null;
+            } else {
+                retry = false;
+                previous = range.stale ? range.items : null;
+                range.items = items;
+                range.stale = false;
+            }
+        }
+
+        if (retry) {
+            scheduleRetry(key);
+        } else if (previous != null) {
+            fireRefreshed(previous, items);
+        }
+    }
+
+    /**
+     * @return The last items of the range, which are then stale, or the
+     * items of the query if it has completed in the meantime
+     */
+    private List<ITEM> getLastItems(List<ZonedDateTime> key, CompletableFuture<List<ITEM>> query) {
+
+        synchronized (ranges) {
+            Range<ITEM> range = ranges.computeIfAbsent(key, k -> new Range<>());
+            if (query != null && range.query == null && range.items != null && !range.stale
+                    && query.isDone() && !query.isCompletedExceptionally()) {
+                return new ArrayList<>(range.items);
+            }
+            staleResults.incrementAndGet();
+            range.stale = true;
+            if (range.items == null) {
+                range.items = Collections.emptyList();
+            }
+            return new ArrayList<>(range.items);
+        }
+    }
+
+    /**
+     * Tell the calendars about the fresh items of a stale range.
+     */
+    private void fireRefreshed(List<ITEM> previous, List<ITEM> items) {
+
+        Set<ITEM> affected = Collections.newSetFromMap(new IdentityHashMap<>());
+        affected.addAll(previous);
+        affected.addAll(items);
+
+        fireChanged(affected);
+    }
+
+    /**
+     * Fire a change of the given items. Without items, the range can not be
+     * told, so all calendars are reset.
+     */
+    private void fireChanged(Collection<ITEM> items) {
+
+        ItemSetChangedEvent<ITEM> event = items.isEmpty() ? new ItemSetChangedEvent<>(this)
+                : new ItemSetChangedEvent<>(this, ItemSetChangedEvent.ChangeType.CHANGED, items);
+        for (ItemSetChangedListener listener : listeners) {
+            listener.itemSetChanged(event);
+        }
+    }
+
+    /**
+     * Fire a change of a stale range after the retry delay, at the earliest
+     * when the breaker closes, so the calendars query it again.
+     */
+    private void scheduleRetry(List<ZonedDateTime> key) {
+
+        ScheduledExecutorService scheduler = retryScheduler;
+        if (scheduler == null) {
+            return;
+        }
+
+        synchronized (ranges) {
+            Range<ITEM> range = ranges.get(key);
+            if (range == null || !range.stale || range.retry) {
+                return;
+            }
+            range.retry = true;
+        }
+
+        long delay = Math.max(retryDelayNanos, getRemainingOpenNanos());
+        try {
+            scheduler.schedule(() -> retry(key), delay, TimeUnit.NANOSECONDS);
+        } catch (RejectedExecutionException e) {
+            synchronized (ranges) {
+                Range<ITEM> range = ranges.get(key);
+                if (range != null) {
+                    range.retry = false;
+                }
+            }
+        }
+    }
+
+    private void retry(List<ZonedDateTime> key) {
+
+        List<ITEM> items;
+
+        synchronized (ranges) {
+            Range<ITEM> range = ranges.get(key);
+            if (range == null) {
+                return;
+            }
+            range.retry = false;
+            if (!range.stale || range.query != null) {
+                // refreshed or being refreshed in the meantime
+                return;
+            }
+            items = range.items;
+        }
+
+        fireChanged(items);
+    }
+
+    /**
+     * Fire a change of all stale ranges which are not being refreshed.
+     */
+    private void retryStaleRanges() {
+
+        Set<ITEM> items = Collections.newSetFromMap(new IdentityHashMap<>());
+        boolean stale = false;
+
+        synchronized (ranges) {
+            for (Range<ITEM> range : ranges.values()) {
+                if (range.stale && range.query == null) {
+                    stale = true;
+                    items.addAll(range.items);
+                }
+            }
+        }
+
+        if (stale) {
+            fireChanged(items);
+        }
+    }
+
+    private synchronized boolean allowQuery() {
+
+        if (failures < failureThreshold) {
+            return true;
+        }
+
+        long now = System.nanoTime();
+        if (now - openedAt < openNanos) {
+            return false;
+        }
+
+        // let a single query try the wrapped provider
+        openedAt = now;
+        return true;
+    }
+
+    /**
+     * @return true if the breaker was open and is closed now
+     */
+    private synchronized boolean recordSuccess() {
+        boolean closed = failures >= failureThreshold;
+        failures = 0;
+        return closed;
+    }
+
+    private synchronized void recordFailure() {
+        failures++;
+        if (failures >= failureThreshold) {
+            openedAt = System.nanoTime();
+        }
+    }
+
+    private synchronized long getRemainingOpenNanos() {
+        if (failures < failureThreshold) {
+            return 0;
+        }
+        return Math.max(0, openNanos - (System.nanoTime() - openedAt));
+    }
+
+    /**
+     * @return true if the items which were returned last for exactly this
+     * range are stale
+     */
+    @Override
+    public boolean isStale(ZonedDateTime startDate, ZonedDateTime endDate) {
+        synchronized (ranges) {
+            // get() would count as an access of the range
+            for (Map.Entry<List<ZonedDateTime>, Range<ITEM>> range : ranges.entrySet()) {
+                if (range.getValue().stale
+                        && range.getKey().get(0).equals(startDate)
+                        && range.getKey().get(1).equals(endDate)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Set the maximum time to wait for the items of the wrapped provider.
+     *
+     * @param deadline The maximum time to wait
+     */
+    public void setDeadline(Duration deadline) {
+        if (deadline == null || deadline.isNegative()) {
+            throw new IllegalArgumentException("Deadline cannot be negative");
+        }
+        this.deadlineNanos = deadline.toNanos();
+    }
+
+    /**
+     * @return The maximum time to wait for the items of the wrapped provider
+     */
+    public Duration getDeadline() {
+        return Duration.ofNanos(deadlineNanos);
+    }
+
+    /**
+     * Set the number of consecutive timeouts or errors which open the
+     * breaker.
+     *
+     * @param failureThreshold The number of failures, at least 1
+     */
+    public synchronized void setFailureThreshold(int failureThreshold) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+    }
+
+    /**
+     * @return The number of consecutive failures which open the breaker
+     */
+    public synchronized int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    /**
+     * Set the time the wrapped provider is not queried after the breaker
+     * opened.
+     *
+     * @param openDuration The time to wait before the next query
+     */
+    public synchronized void setOpenDuration(Duration openDuration) {
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * @return The time the wrapped provider is not queried after the breaker
+     * opened
+     */
+    public synchronized Duration getOpenDuration() {
+        return Duration.ofNanos(openNanos);
+    }
+
+    /**
+     * @return true if the wrapped provider is currently not queried
+     */
+    public synchronized boolean isBreakerOpen() {
+        return failures >= failureThreshold && System.nanoTime() - openedAt < openNanos;
+    }
+
+    /**
+     * Set the time until a stale range, which could not be refreshed, is
+     * queried again.
+     *
+     * @param retryDelay The time until the range is queried again
+     */
+    public void setRetryDelay(Duration retryDelay) {
+        if (retryDelay == null || retryDelay.isNegative()) {
+            throw new IllegalArgumentException("Retry delay cannot be negative");
+        }
+        this.retryDelayNanos = retryDelay.toNanos();
+    }
+
+    /**
+     * @return The time until a stale range, which could not be refreshed, is
+     * queried again
+     */
+    public Duration getRetryDelay() {
+        return Duration.ofNanos(retryDelayNanos);
+    }
+
+    /**
+     * Set the scheduler of the retries of stale ranges. It has to be set
+     * again after deserialization.
+     *
+     * @param retryScheduler The scheduler, or null to not retry stale ranges
+     */
+    public void setRetryScheduler(ScheduledExecutorService retryScheduler) {
+        this.retryScheduler = retryScheduler;
+    }
+
+    /**
+     * @return The scheduler of the retries of stale ranges, or null
+     */
+    public ScheduledExecutorService getRetryScheduler() {
+        return retryScheduler;
+    }
+
+    /**
+     * @return The number of queries which missed the deadline
+     */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+
+    /**
+     * @return The number of queries which failed with an error
+     */
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * @return The number of times the last items were returned instead of
+     * fresh ones
+     */
+    public long getStaleCount() {
+        return staleResults.get();
+    }
+
+    /**
+     * @return The number of queries which were not passed to the wrapped
+     * provider, because the breaker was open
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * Set the executor which queries the wrapped provider. It has to be set
+     * again after deserialization.
+     *
+     * @param executor The executor
+     */
+    public void setExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.executor = executor;
+    }
+
+    /**
+     * @return The executor which queries the wrapped provider
+     */
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    /**
+     * @return The wrapped provider
+     */
+    public CalendarItemProvider<ITEM> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void itemSetChanged(ItemSetChangedEvent changeEvent) {
+
+        ItemSetChangedEvent<ITEM> source = changeEvent;
+        ItemSetChangedEvent<ITEM> event = new ItemSetChangedEvent<>(this, source.getChangeType(), source.getItems());
+        for (ItemSetChangedListener listener : listeners) {
+            listener.itemSetChanged(event);
+        }
+    }
+
+    @Override
+    public void addItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    private Logger getLogger() {
+        return Logger.getLogger(DeadlineItemProvider.class.getName());
+    }
+}
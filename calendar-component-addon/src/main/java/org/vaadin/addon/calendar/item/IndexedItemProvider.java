@@ -0,0 +1,47 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * A {@link BasicItemProvider} which answers range queries with an interval
+ * index instead of scanning all items.
+ * <p>
+ * The index is built lazily on the first query and dropped whenever an item is
+ * added, removed or changed. Use this provider for large item sets which are
+ * queried much more often than they are modified.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+@SuppressWarnings("serial")
+public class IndexedItemProvider<ITEM extends BasicItem> extends BasicItemProvider<ITEM> {
+
+    private transient volatile ItemIntervalIndex<ITEM> index;
+
+    @Override
+    public List<ITEM> getItems(ZonedDateTime startDate, ZonedDateTime endDate) {
+
+        ItemIntervalIndex<ITEM> current = index;
+        if (current == null) {
+            current = new ItemIntervalIndex<>(itemList);
+            index = current;
+        }
+
+        return current.query(startDate, endDate);
+    }
+
+    /**
+     * Drop the current index. It is rebuilt on the next query. Call this if
+     * {@link #itemList} was modified directly.
+     */
+    protected void invalidateIndex() {
+        index = null;
+    }
+
+    @Override
+    protected void fireItemSetChanged(ItemSetChangedEvent<ITEM> changeEvent) {
+        invalidateIndex();
+        super.fireItemSetChanged(changeEvent);
+    }
+}
@@ -0,0 +1,106 @@
+package org.vaadin.addon.calendar.item;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * An immutable interval index over calendar items.
+ * <p>
+ * The items are sorted by their start and stored as an implicit balanced
+ * binary tree (the middle of every sub range is its root). Every node keeps
+ * the maximum end of its sub tree, so an overlap query only descends into
+ * sub trees which can contain matches. A query costs O(log n + k).
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+@SuppressWarnings("serial")
+class ItemIntervalIndex<ITEM extends CalendarItem> implements Serializable {
+
+    private final Object[] items;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    ItemIntervalIndex(Collection<? extends ITEM> source) {
+
+        Object[] sorted = source.toArray();
+        Arrays.sort(sorted, Comparator.comparingLong(i -> ((CalendarItem) i).getStart().toEpochSecond()));
+
+        items = sorted;
+        starts = new long[sorted.length];
+        ends = new long[sorted.length];
+        maxEnds = new long[sorted.length];
+
+        for (int i = 0; i < sorted.length; i++) {
+            CalendarItem item = (CalendarItem) sorted[i];
+            starts[i] = item.getStart().toEpochSecond();
+            ends[i] = item.getEnd().toEpochSecond();
+        }
+
+        buildMaxEnds(0, sorted.length);
+    }
+
+    private long buildMaxEnds(int lo, int hi) {
+        if (lo >= hi) {
+            return Long.MIN_VALUE;
+        }
+        int mid = (lo + hi) >>> 1;
+        long max = Math.max(ends[mid], Math.max(buildMaxEnds(lo, mid), buildMaxEnds(mid + 1, hi)));
+        maxEnds[mid] = max;
+        return max;
+    }
+
+    /**
+     * @return the number of indexed items
+     */
+    int size() {
+        return items.length;
+    }
+
+    /**
+     * Get all items which overlap with the given range. The result is sorted
+     * by the start of the items.
+     *
+     * @param startDate Start of the range
+     * @param endDate End of the range
+     * @return A new list with the overlapping items
+     */
+    List<ITEM> query(ZonedDateTime startDate, ZonedDateTime endDate) {
+        List<ITEM> result = new ArrayList<>();
+        query(0, items.length, startDate.toEpochSecond(), endDate.toEpochSecond(), result);
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void query(int lo, int hi, long startRange, long endRange, List<ITEM> result) {
+
+        while (lo < hi) {
+
+            int mid = (lo + hi) >>> 1;
+
+            // nothing in this sub tree ends after the range starts
+            if (maxEnds[mid] < startRange) {
+                return;
+            }
+
+            query(lo, mid, startRange, endRange, result);
+
+            // everything right of mid starts after the range ends
+            if (starts[mid] > endRange) {
+                return;
+            }
+
+            if (ends[mid] >= startRange) {
+                result.add((ITEM) items[mid]);
+            }
+
+            lo = mid + 1;
+        }
+    }
+}
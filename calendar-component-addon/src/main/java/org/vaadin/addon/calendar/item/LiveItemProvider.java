@@ -0,0 +1,243 @@
+package org.vaadin.addon.calendar.item;
+
+import java.io.Serializable;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link CalendarItemProvider} which routes the changes of a shared
+ * provider only to the calendars they affect.
+ * <p>
+ * Each attached calendar subscribes with the range it currently shows. A
+ * change of the wrapped provider is delivered only to the subscriptions
+ * whose range overlaps the changed items, or which currently show one of
+ * them. The other subscribers are not notified at all, so a single change
+ * does not wake all sessions which use the provider.
+ * <p>
+ * The calendar delivers the change to its UI with
+ * {@link com.vaadin.ui.UI#access(Runnable)}. Enable server push to show the
+ * change without waiting for the next request of the browser.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+@SuppressWarnings("serial")
+public class LiveItemProvider<ITEM extends CalendarItem> implements
+        CalendarItemProvider<ITEM>,
+        CalendarItemProvider.ItemSetChangedNotifier,
+        CalendarItemProvider.ItemSetChangedListener {
+
+    /**
+     * The registration of a listener for the changes of a range.
+     */
+    public final class Subscription implements Serializable {
+
+        private final ItemSetChangedListener listener;
+
+        private volatile ZonedDateTime startDate;
+        private volatile ZonedDateTime endDate;
+        private volatile Set<CalendarItem> shownItems = Collections.emptySet();
+
+        private Subscription(ItemSetChangedListener listener) {
+            this.listener = listener;
+        }
+
+        /**
+         * Set the range and the items which the subscriber currently shows.
+         * Changes of the shown items are delivered even if the items have
+         * moved out of the range. Without a range, only resets and changes
+         * of the shown items are delivered.
+         *
+         * @param startDate Start of the range, or null
+         * @param endDate End of the range, or null
+         * @param items The shown items
+         */
+        public void setRange(ZonedDateTime startDate, ZonedDateTime endDate, Collection<? extends CalendarItem> items) {
+            Set<CalendarItem> shown = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (items != null) {
+                shown.addAll(items);
+            }
+            this.shownItems = Collections.unmodifiableSet(shown);
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        /**
+         * Set the range which the subscriber is about to query. The shown
+         * items are kept, so changes of them are still delivered until the
+         * queried items are {@link #setRange(ZonedDateTime, ZonedDateTime, Collection) set}.
+         * Set the range before querying it, otherwise changes between the
+         * query and setting the range are missed.
+         *
+         * @param startDate Start of the range, or null
+         * @param endDate End of the range, or null
+         */
+        public void setRange(ZonedDateTime startDate, ZonedDateTime endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        /**
+         * @return The start of the subscribed range, or null
+         */
+        public ZonedDateTime getStartDate() {
+            return startDate;
+        }
+
+        /**
+         * @return The end of the subscribed range, or null
+         */
+        public ZonedDateTime getEndDate() {
+            return endDate;
+        }
+
+        /**
+         * Stop delivering changes to the subscriber.
+         */
+        public void remove() {
+            subscriptions.remove(this);
+        }
+
+        private boolean isAffectedBy(ItemSetChangedEvent<ITEM> event) {
+
+            ZonedDateTime start = startDate;
+            ZonedDateTime end = endDate;
+            if (start != null && end != null && event.overlaps(start, end)) {
+                return true;
+            }
+
+            Set<CalendarItem> shown = shownItems;
+            for (ITEM item : event.getItems()) {
+                if (shown.contains(item)) {
+                    return true;
+                }
+            }
+
+            return event.getChangeType() == ItemSetChangedEvent.ChangeType.RESET;
+        }
+    }
+
+    private final CalendarItemProvider<ITEM> delegate;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final List<ItemSetChangedListener> listeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong skipped = new AtomicLong();
+
+    /**
+     * Route the changes of the given provider. The provider should be an
+     * {@link ItemSetChangedNotifier}, otherwise changes have to be signaled
+     * with {@link #itemSetChanged(ItemSetChangedEvent)}.
+     *
+     * @param delegate The shared provider
+     */
+    public LiveItemProvider(CalendarItemProvider<ITEM> delegate) {
+
+        if (delegate == null) {
+            throw new IllegalArgumentException("Item provider cannot be null");
+        }
+
+        this.delegate = delegate;
+
+        if (delegate instanceof ItemSetChangedNotifier) {
+            ((ItemSetChangedNotifier) delegate).addItemSetChangedListener(this);
+        }
+    }
+
+    @Override
+    public List<ITEM> getItems(ZonedDateTime startDate, ZonedDateTime endDate) {
+        return delegate.getItems(startDate, endDate);
+    }
+
+    @Override
+    public boolean isStale(ZonedDateTime startDate, ZonedDateTime endDate) {
+        return delegate.isStale(startDate, endDate);
+    }
+
+    /**
+     * Subscribe to the changes of a range. The listener is called in the
+     * thread which changed the items, so it must not touch the UI directly.
+     *
+     * @param listener The listener to notify about changes of the range
+     * @return The subscription, which has no range until
+     * {@link Subscription#setRange(ZonedDateTime, ZonedDateTime, Collection) set}
+     */
+    public Subscription subscribe(ItemSetChangedListener listener) {
+        Subscription subscription = new Subscription(listener);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * @return The number of current subscriptions
+     */
+    public int getSubscriptionCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * @return The number of changes which were delivered to subscribers
+     */
+    public long getDeliveredCount() {
+        return delivered.get();
+    }
+
+    /**
+     * @return The number of changes which were not delivered to subscribers,
+     * because their range was not affected
+     */
+    public long getSkippedCount() {
+        return skipped.get();
+    }
+
+    /**
+     * @return The wrapped provider
+     */
+    public CalendarItemProvider<ITEM> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void itemSetChanged(ItemSetChangedEvent changeEvent) {
+
+        ItemSetChangedEvent<ITEM> source = changeEvent;
+        ItemSetChangedEvent<ITEM> event = new ItemSetChangedEvent<>(this, source.getChangeType(), source.getItems());
+
+        for (Subscription subscription : subscriptions) {
+            if (subscription.isAffectedBy(event)) {
+                delivered.incrementAndGet();
+                subscription.listener.itemSetChanged(event);
+            } else {
+                skipped.incrementAndGet();
+            }
+        }
+
+        for (ItemSetChangedListener listener : listeners) {
+            listener.itemSetChanged(event);
+        }
+    }
+
+    /**
+     * Listeners receive all changes, regardless of their range. Use
+     * {@link #subscribe(ItemSetChangedListener)} to receive only the changes
+     * of a range.
+     */
+    @Override
+    public void addItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.remove(listener);
+    }
+}
@@ -0,0 +1,288 @@
+package org.vaadin.addon.calendar.item;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link CalendarItemProvider} which merges concurrent queries of another
+ * provider.
+ * <p>
+ * A query waits for a query of the wrapped provider which is already running
+ * for the same or a containing range, instead of starting another one. The
+ * result is shared by all waiting queries. Queries which start after a
+ * change event of the wrapped provider do not wait for queries which started
+ * before it.
+ * <p>
+ * The number of loads, merged queries and the time spent waiting are
+ * recorded for each queried range. The statistics of the least recently
+ * queried ranges are evicted if more than {@link #MAX_STATISTICS} ranges
+ * were queried.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+@SuppressWarnings("serial")
+public class SingleFlightItemProvider<ITEM extends CalendarItem> implements
+        CalendarItemProvider<ITEM>,
+        CalendarItemProvider.ItemSetChangedNotifier,
+        CalendarItemProvider.ItemSetChangedListener {
+
+    /**
+     * Maximum number of ranges with statistics.
+     */
+    public static final int MAX_STATISTICS = 256;
+
+    /**
+     * The statistics of a queried range.
+     */
+    public static class RangeStatistics implements Serializable {
+
+        private final AtomicLong loads = new AtomicLong();
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong waitNanos = new AtomicLong();
+
+        /**
+         * @return The number of queries which loaded the items from the
+         * wrapped provider
+         */
+        public long getLoadCount() {
+            return loads.get();
+        }
+
+        /**
+         * @return The number of queries which were answered by a query
+         * already running
+         */
+        public long getHitCount() {
+            return hits.get();
+        }
+
+        /**
+         * @return The total time the merged queries waited for the result
+         */
+        public Duration getWaitTime() {
+            return Duration.ofNanos(waitNanos.get());
+        }
+    }
+
+    /**
+     * A running query of the wrapped provider.
+     */
+    private static class Flight<ITEM> {
+
+        private final ZonedDateTime startDate;
+        private final ZonedDateTime endDate;
+        private final CompletableFuture<List<ITEM>> result = new CompletableFuture<>();
+
+        private Flight(ZonedDateTime startDate, ZonedDateTime endDate) {
+            this.startDate = startDate;
+            this.endDate = endDate;
+        }
+
+        private boolean contains(ZonedDateTime start, ZonedDateTime end) {
+            return !startDate.isAfter(start) && !endDate.isBefore(end);
+        }
+    }
+
+    private final CalendarItemProvider<ITEM> delegate;
+
+    private final List<Flight<ITEM>> flights = new ArrayList<>();
+
+    private final Map<List<ZonedDateTime>, RangeStatistics> statistics =
+            new LinkedHashMap<List<ZonedDateTime>, RangeStatistics>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<ZonedDateTime>, RangeStatistics> eldest) {
+                    return size() > MAX_STATISTICS;
+                }
+            };
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    private final List<ItemSetChangedListener> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Merge the concurrent queries of the given provider. The provider must
+     * support concurrent queries.
+     *
+     * @param delegate The provider to query
+     */
+    public SingleFlightItemProvider(CalendarItemProvider<ITEM> delegate) {
+
+        if (delegate == null) {
+            throw new IllegalArgumentException("Item provider cannot be null");
+        }
+
+        this.delegate = delegate;
+
+        if (delegate instanceof ItemSetChangedNotifier) {
+            ((ItemSetChangedNotifier) delegate).addItemSetChangedListener(this);
+        }
+    }
+
+    @Override
+    public List<ITEM> getItems(ZonedDateTime startDate, ZonedDateTime endDate) {
+
+        RangeStatistics rangeStatistics = getStatistics(startDate, endDate);
+
+        Flight<ITEM> flight = null;
+        boolean leader = false;
+
+        synchronized (flights) {
+            for (Flight<ITEM> running : flights) {
+                if (running.contains(startDate, endDate)) {
+                    flight = running;
+                    break;
+                }
+            }
+            if (flight == null) {
+                flight = new Flight<>(startDate, endDate);
+                flights.add(flight);
+                leader = true;
+            }
+        }
+
+        if (leader) {
+            loads.incrementAndGet();
+            rangeStatistics.loads.incrementAndGet();
+            return load(flight);
+        }
+
+        hits.incrementAndGet();
+        rangeStatistics.hits.incrementAndGet();
+
+        long waitStart = System.nanoTime();
+        List<ITEM> items;
+        try {
+            items = flight.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        } finally {
+            rangeStatistics.waitNanos.addAndGet(System.nanoTime() - waitStart);
+        }
+
+        if (flight.startDate.equals(startDate) && flight.endDate.equals(endDate)) {
+            return new ArrayList<>(items);
+        }
+
+        final long startRange = startDate.toEpochSecond();
+        final long endRange = endDate.toEpochSecond();
+
+        List<ITEM> result = new ArrayList<>();
+        for (ITEM item : items) {
+            if (item.getStart().toEpochSecond() <= endRange && item.getEnd().toEpochSecond() >= startRange) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isStale(ZonedDateTime startDate, ZonedDateTime endDate) {
+        return delegate.isStale(startDate, endDate);
+    }
+
+    private List<ITEM> load(Flight<ITEM> flight) {
+        try {
+            List<ITEM> items = delegate.getItems(flight.startDate, flight.endDate);
+            // the waiters share a copy, the caller may change the returned list
+            flight.result.complete(items == null ? Collections.emptyList() : new ArrayList<>(items));
+            return items;
+        } catch (Throwable e) {
+            // also errors, the waiters would block forever otherwise
+            flight.result.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (flights) {
+                flights.remove(flight);
+            }
+        }
+    }
+
+    /**
+     * @param startDate Start of the range
+     * @param endDate End of the range
+     * @return The statistics of the given range, which are created if the
+     * range was not queried yet
+     */
+    public RangeStatistics getStatistics(ZonedDateTime startDate, ZonedDateTime endDate) {
+        synchronized (statistics) {
+            return statistics.computeIfAbsent(Arrays.asList(startDate, endDate), range -> new RangeStatistics());
+        }
+    }
+
+    /**
+     * @return The statistics of the recently queried ranges, by a list of
+     * their start and end
+     */
+    public Map<List<ZonedDateTime>, RangeStatistics> getStatistics() {
+        synchronized (statistics) {
+            return new LinkedHashMap<>(statistics);
+        }
+    }
+
+    /**
+     * @return The number of queries of the wrapped provider
+     */
+    public long getLoadCount() {
+        return loads.get();
+    }
+
+    /**
+     * @return The number of queries which were answered by a query already
+     * running
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * @return The wrapped provider
+     */
+    public CalendarItemProvider<ITEM> getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void itemSetChanged(ItemSetChangedEvent changeEvent) {
+
+        // queries which started before the change may miss it
+        synchronized (flights) {
+            flights.clear();
+        }
+
+        ItemSetChangedEvent<ITEM> source = changeEvent;
+        ItemSetChangedEvent<ITEM> event = new ItemSetChangedEvent<>(this, source.getChangeType(), source.getItems());
+        for (ItemSetChangedListener listener : listeners) {
+            listener.itemSetChanged(event);
+        }
+    }
+
+    @Override
+    public void addItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeItemSetChangedListener(ItemSetChangedListener listener) {
+        listeners.remove(listener);
+    }
+}
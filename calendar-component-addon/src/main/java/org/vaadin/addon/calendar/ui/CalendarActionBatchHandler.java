@@ -0,0 +1,46 @@
+package org.vaadin.addon.calendar.ui;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.vaadin.event.Action;
+
+/**
+ * An action handler which gets the actions of all visible ranges with one
+ * call. The ranges are the half hour slots in the weekly view and the days in
+ * the monthly view.
+ * <p>
+ * Use this if looking up the actions is expensive, for example if it needs a
+ * database query, and the lookup can be done for many ranges at once.
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public interface CalendarActionBatchHandler extends Action.Handler {
+
+    /**
+     * Gets the actions of all visible ranges.
+     *
+     * @param ranges
+     *            The visible ranges, in chronological order
+     * @param sender
+     *            The calendar
+     * @return The actions by range. Ranges without actions can be left out.
+     *         The keys may be new ranges, ranges are equal if they start and
+     *         end at the same instants.
+     */
+    Map<CalendarDateRange, Action[]> getActions(List<CalendarDateRange> ranges, Object sender);
+
+    /**
+     * Gets the actions of a single range.
+     */
+    @Override
+    default Action[] getActions(Object target, Object sender) {
+        if (target instanceof CalendarDateRange) {
+            CalendarDateRange range = (CalendarDateRange) target;
+            return getActions(Collections.singletonList(range), sender).get(range);
+        }
+        return null;
+    }
+}
@@ -16,8 +16,10 @@
 package org.vaadin.addon.calendar.ui;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Date;
+import java.util.Objects;
 import java.util.TimeZone;
 
 /**
@@ -97,6 +99,32 @@ public class CalendarDateRange implements Serializable {
         return date.compareTo(start) >= 0 && date.compareTo(end) <= 0;
     }
 
+    /**
+     * Ranges are equal if they start and end at the same instants, regardless
+     * of the time zone.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof CalendarDateRange)) {
+            return false;
+        }
+        CalendarDateRange other = (CalendarDateRange) obj;
+        return Objects.equals(toInstant(start), toInstant(other.start))
+                && Objects.equals(toInstant(end), toInstant(other.end));
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(toInstant(start), toInstant(end));
+    }
+
+    private static Instant toInstant(ZonedDateTime date) {
+        return date == null ? null : date.toInstant();
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -0,0 +1,149 @@
+package org.vaadin.addon.calendar;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.vaadin.addon.calendar.item.BasicItem;
+import org.vaadin.addon.calendar.item.CalendarAsyncItemProvider;
+
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+
+/**
+ * Test for the items of an async item provider
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class CalendarAsyncItemLoadingTest {
+
+    private static final ZoneId ZONE = ZoneId.of("Europe/Berlin");
+    private static final ZonedDateTime MONDAY = ZonedDateTime.of(2026, 3, 16, 0, 0, 0, 0, ZONE);
+
+    /**
+     * Runs the accesses immediately.
+     */
+    @SuppressWarnings("serial")
+    private static class TestUI extends UI {
+
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+
+        @Override
+        public Future<Void> access(Runnable runnable) {
+            runnable.run();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    private final List<CompletableFuture<List<BasicItem>>> queries = new ArrayList<>();
+
+    private Calendar<BasicItem> createCalendar(boolean attached) {
+
+        Calendar<BasicItem> calendar = new Calendar<>();
+        calendar.setLocale(Locale.GERMANY);
+        calendar.setZoneId(ZONE);
+        calendar.setDataProvider((CalendarAsyncItemProvider<BasicItem>) (start, end) -> {
+            CompletableFuture<List<BasicItem>> query = new CompletableFuture<>();
+            queries.add(query);
+            return query;
+        });
+        calendar.setStartDate(MONDAY);
+        calendar.setEndDate(MONDAY.plusDays(6));
+
+        if (attached) {
+            new TestUI().setContent(calendar);
+        }
+        return calendar;
+    }
+
+    private static List<BasicItem> items(ZonedDateTime start, int count) {
+        List<BasicItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(new BasicItem("item " + i, null, start.plusHours(10 + i)));
+        }
+        return items;
+    }
+
+    @Test
+    public void itemsAreShownOnceLoaded() {
+
+        Calendar<BasicItem> calendar = createCalendar(true);
+
+        calendar.beforeClientResponse(true);
+        Assert.assertEquals(1, queries.size());
+        Assert.assertTrue(calendar.getState().itemsLoading);
+        Assert.assertTrue(calendar.getState().items.isEmpty());
+
+        queries.get(0).complete(items(MONDAY, 2));
+        calendar.beforeClientResponse(false);
+        Assert.assertFalse(calendar.getState().itemsLoading);
+        Assert.assertEquals(2, calendar.getState().items.size());
+        Assert.assertEquals(1, queries.size());
+    }
+
+    @Test
+    public void supersededQueriesAreDroppedNotCancelled() {
+
+        Calendar<BasicItem> calendar = createCalendar(true);
+        calendar.beforeClientResponse(true);
+
+        calendar.setStartDate(MONDAY.plusWeeks(1));
+        calendar.setEndDate(MONDAY.plusWeeks(1).plusDays(6));
+        calendar.beforeClientResponse(false);
+        Assert.assertEquals(2, queries.size());
+
+        // the provider may share the future with other callers
+        Assert.assertFalse(queries.get(0).isCancelled());
+
+        queries.get(0).complete(items(MONDAY, 3));
+        calendar.beforeClientResponse(false);
+        Assert.assertTrue(calendar.getState().itemsLoading);
+        Assert.assertTrue(calendar.getState().items.isEmpty());
+
+        queries.get(1).complete(items(MONDAY.plusWeeks(1), 1));
+        calendar.beforeClientResponse(false);
+        Assert.assertFalse(calendar.getState().itemsLoading);
+        Assert.assertEquals(1, calendar.getState().items.size());
+    }
+
+    @Test
+    public void completedQueriesNeedNoRoundTrip() {
+
+        Calendar<BasicItem> calendar = createCalendar(true);
+        calendar.setDataProvider((CalendarAsyncItemProvider<BasicItem>) (start, end) ->
+                CompletableFuture.completedFuture(items(start, 2)));
+
+        calendar.beforeClientResponse(true);
+        Assert.assertFalse(calendar.getState().itemsLoading);
+        Assert.assertEquals(2, calendar.getState().items.size());
+    }
+
+    @Test
+    public void detachedCalendarDoesNotWait() {
+
+        Calendar<BasicItem> calendar = createCalendar(false);
+
+        calendar.beforeClientResponse(true);
+        Assert.assertEquals(1, queries.size());
+        Assert.assertFalse(calendar.getState().itemsLoading);
+
+        // completing the query later has no effect without a UI
+        queries.get(0).complete(items(MONDAY, 2));
+        Assert.assertTrue(calendar.getState().items.isEmpty());
+
+        // the next full response queries again
+        calendar.beforeClientResponse(true);
+        Assert.assertEquals(2, queries.size());
+        Assert.assertEquals(Collections.emptyList(), calendar.getState().items);
+    }
+}
@@ -0,0 +1,79 @@
+package org.vaadin.addon.calendar;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.vaadin.addon.calendar.client.CalendarState;
+import org.vaadin.addon.calendar.item.BasicItem;
+
+/**
+ * Test for the days shared between calendars and their time blocks
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class CalendarDayCacheTest {
+
+    private static final ZonedDateTime BASE = ZonedDateTime.of(2026, 1, 5, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Test
+    public void calendarsShareDays() {
+
+        Calendar<BasicItem> first = createCalendar();
+        Calendar<BasicItem> second = createCalendar();
+
+        Assert.assertSame(first.getState().days, second.getState().days);
+
+        second.addTimeBlock(LocalDate.of(2026, 1, 6), 0, 1800000, "blocked");
+        second.beforeClientResponse(false);
+        Assert.assertNotSame(first.getState().days, second.getState().days);
+        Assert.assertArrayEquals(new long[] { 1 }, second.getState().days.get(1).timeBlockSlots);
+
+        second.clearTimeBlocks();
+        second.beforeClientResponse(false);
+        Assert.assertSame(first.getState().days, second.getState().days);
+
+        second.setWeeklyCaptionProvider(date -> "day");
+        second.beforeClientResponse(false);
+        Assert.assertEquals("day", second.getState().days.get(0).localizedDateFormat);
+        Assert.assertNotEquals("day", first.getState().days.get(0).localizedDateFormat);
+    }
+
+    @Test
+    public void recurringTimeBlocks() {
+
+        Calendar<BasicItem> calendar = createCalendar();
+        calendar.addTimeBlock(EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+                LocalTime.of(9, 0), LocalTime.of(17, 0), "business");
+        calendar.addTimeBlock(LocalDate.of(2026, 1, 9), 16 * 3600000, 18 * 3600000, "late");
+        calendar.beforeClientResponse(false);
+
+        long business = 0xFFFFL << 18;
+        CalendarState.Day monday = calendar.getState().days.get(0);
+        Assert.assertArrayEquals(new String[] { "business" }, monday.timeBlockStyles);
+        Assert.assertArrayEquals(new long[] { business }, monday.timeBlockSlots);
+
+        CalendarState.Day friday = calendar.getState().days.get(4);
+        Assert.assertArrayEquals(new String[] { "business", "late" }, friday.timeBlockStyles);
+        Assert.assertArrayEquals(new long[] { business, 0xFL << 32 }, friday.timeBlockSlots);
+
+        Assert.assertNull(calendar.getState().days.get(5).timeBlockStyles);
+    }
+
+    private Calendar<BasicItem> createCalendar() {
+        Calendar<BasicItem> calendar = new Calendar<>();
+        calendar.setLocale(Locale.GERMANY);
+        calendar.setZoneId(BASE.getZone());
+        calendar.setStartDate(BASE);
+        calendar.setEndDate(BASE.plusDays(6));
+        calendar.beforeClientResponse(true);
+        return calendar;
+    }
+}
@@ -0,0 +1,98 @@
+package org.vaadin.addon.calendar;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.vaadin.addon.calendar.item.BasicItem;
+import org.vaadin.addon.calendar.item.DeadlineItemProvider;
+
+/**
+ * Test for the items of the visible time of the day
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class CalendarLazyItemLoadingTest {
+
+    @Test
+    public void timeOfDayIsWallClockTime() {
+
+        ZoneId zone = ZoneId.of("Europe/Berlin");
+        List<ZonedDateTime> queried = new ArrayList<>();
+
+        Calendar<BasicItem> calendar = new Calendar<>();
+        calendar.setLocale(Locale.GERMANY);
+        calendar.setZoneId(zone);
+        calendar.setDataProvider((start, end) -> {
+            queried.add(start);
+            queried.add(end);
+            return Collections.emptyList();
+        });
+        calendar.setLazyItemLoading(true);
+
+        // the week of the change to daylight saving time
+        calendar.setStartDate(ZonedDateTime.of(2026, 3, 23, 0, 0, 0, 0, zone));
+        calendar.setEndDate(ZonedDateTime.of(2026, 3, 29, 0, 0, 0, 0, zone));
+        calendar.beforeClientResponse(true);
+
+        Assert.assertEquals(14, queried.size());
+        for (int i = 0; i < queried.size(); i += 2) {
+            Assert.assertEquals(LocalTime.MIN, queried.get(i).toLocalTime());
+            Assert.assertEquals(LocalTime.of(10, 0), queried.get(i + 1).toLocalTime());
+        }
+        Assert.assertEquals(LocalDate.of(2026, 3, 29), queried.get(13).toLocalDate());
+    }
+
+    @Test
+    public void slowDaysWaitForOneDeadline() throws Exception {
+
+        ZoneId zone = ZoneId.of("Europe/Berlin");
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            DeadlineItemProvider<BasicItem> provider = new DeadlineItemProvider<>((start, end) -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Collections.emptyList();
+            }, Duration.ofMillis(200), executor);
+
+            Calendar<BasicItem> calendar = new Calendar<>();
+            calendar.setLocale(Locale.GERMANY);
+            calendar.setZoneId(zone);
+            calendar.setDataProvider(provider);
+            calendar.setLazyItemLoading(true);
+            calendar.setStartDate(ZonedDateTime.of(2026, 3, 23, 0, 0, 0, 0, zone));
+            calendar.setEndDate(ZonedDateTime.of(2026, 3, 29, 0, 0, 0, 0, zone));
+
+            long started = System.nanoTime();
+            calendar.beforeClientResponse(true);
+            long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            // one query per day, only the first one waits
+            Assert.assertTrue("Waited " + waited + " ms", waited < 1000);
+            Assert.assertEquals(1, provider.getTimeoutCount());
+            Assert.assertEquals(7, provider.getStaleCount());
+            Assert.assertTrue(calendar.getState().itemsStale);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.vaadin.addon.calendar;
+
+import java.time.DayOfWeek;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the shared locale resources
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class CalendarLocaleResourcesTest {
+
+    @Test
+    public void resourcesAreCreatedOnce() {
+
+        Assert.assertEquals("Sonntag", CalendarLocaleResources.getDayNames(Locale.GERMANY)[0]);
+        long misses = CalendarLocaleResources.getMissCount();
+        long hits = CalendarLocaleResources.getHitCount();
+
+        String[] names = CalendarLocaleResources.getDayNames(Locale.GERMANY);
+        names[0] = "changed";
+
+        Assert.assertEquals("Sonntag", CalendarLocaleResources.getDayNames(Locale.GERMANY)[0]);
+        Assert.assertEquals(misses, CalendarLocaleResources.getMissCount());
+        Assert.assertEquals(hits + 2, CalendarLocaleResources.getHitCount());
+    }
+
+    @Test
+    public void calendarsUseLocaleResources() {
+
+        Calendar<?> calendar = new Calendar<>();
+        calendar.setLocale(Locale.US);
+
+        Assert.assertEquals(Calendar.TimeFormat.Format12H, calendar.getTimeFormat());
+        Assert.assertEquals(DayOfWeek.SUNDAY,
+                CalendarLocaleResources.getWeekFields(Locale.US).getFirstDayOfWeek());
+        Assert.assertTrue(CalendarLocaleResources.is24HourFormat(Locale.GERMANY));
+    }
+}
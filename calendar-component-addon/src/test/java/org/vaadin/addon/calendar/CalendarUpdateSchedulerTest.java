@@ -0,0 +1,132 @@
+package org.vaadin.addon.calendar;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.server.VaadinRequest;
+import com.vaadin.ui.UI;
+import com.vaadin.ui.UIDetachedException;
+
+/**
+ * Test for the coalescing of background updates
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class CalendarUpdateSchedulerTest {
+
+    /**
+     * Runs the updates immediately, counting the accesses.
+     */
+    @SuppressWarnings("serial")
+    private static class TestUI extends UI {
+
+        private final AtomicInteger accesses = new AtomicInteger();
+        private final CountDownLatch accessed;
+        private volatile boolean detached = false;
+
+        private TestUI(int expectedAccesses) {
+            accessed = new CountDownLatch(expectedAccesses);
+        }
+
+        @Override
+        protected void init(VaadinRequest request) {
+        }
+
+        @Override
+        public Future<Void> access(Runnable runnable) {
+            if (detached) {
+                throw new UIDetachedException();
+            }
+            accesses.incrementAndGet();
+            runnable.run();
+            accessed.countDown();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
+
+    @Test
+    public void updatesOfAWindowAreMerged() throws Exception {
+
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            TestUI ui = new TestUI(1);
+            CalendarUpdateScheduler scheduler = new CalendarUpdateScheduler(ui, executor, Duration.ofMillis(100));
+
+            AtomicInteger first = new AtomicInteger();
+            AtomicInteger second = new AtomicInteger();
+            for (int i = 0; i < 10; i++) {
+                scheduler.schedule("first", first::incrementAndGet);
+            }
+            scheduler.schedule("second", second::incrementAndGet);
+
+            Assert.assertTrue(ui.accessed.await(5, TimeUnit.SECONDS));
+            // wait until the flush is done
+            executor.submit(() -> { }).get();
+            Assert.assertEquals(1, ui.accesses.get());
+            Assert.assertEquals(1, first.get());
+            Assert.assertEquals(1, second.get());
+            Assert.assertEquals(11, scheduler.getScheduledCount());
+            Assert.assertEquals(9, scheduler.getMergedCount());
+            Assert.assertEquals(1, scheduler.getPushCount());
+
+            ui.detached = true;
+            scheduler.schedule("first", first::incrementAndGet);
+            scheduler.schedule("second", second::incrementAndGet);
+            // wait for the flush of the window
+            executor.schedule(() -> { }, 200, TimeUnit.MILLISECONDS).get();
+
+            Assert.assertTrue(scheduler.isClosed());
+            Assert.assertEquals(2, scheduler.getDroppedCount());
+            Assert.assertEquals(1, first.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void failingUpdatesDoNotSkipTheOthers() throws Exception {
+
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        try {
+            TestUI ui = new TestUI(1);
+            CalendarUpdateScheduler scheduler = new CalendarUpdateScheduler(ui, executor, Duration.ofMillis(10));
+
+            AtomicInteger applied = new AtomicInteger();
+            scheduler.schedule("failing", () -> {
+                throw new IllegalStateException("failed");
+            });
+            scheduler.schedule("other", applied::incrementAndGet);
+
+            Assert.assertTrue(ui.accessed.await(5, TimeUnit.SECONDS));
+            Assert.assertEquals(1, applied.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void rejectedFlushClosesTheScheduler() {
+
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        executor.shutdown();
+
+        CalendarUpdateScheduler scheduler = new CalendarUpdateScheduler(new TestUI(1), executor);
+        scheduler.schedule("first", () -> { });
+
+        Assert.assertTrue(scheduler.isClosed());
+        Assert.assertEquals(1, scheduler.getDroppedCount());
+
+        scheduler.schedule("second", () -> { });
+        Assert.assertEquals(2, scheduler.getDroppedCount());
+    }
+}
@@ -0,0 +1,41 @@
+package org.vaadin.addon.calendar;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Locale;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the window of the virtualized view
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class CalendarVirtualizedViewTest {
+
+    @Test
+    public void windowStaysWithinTheDateRange() {
+
+        Calendar<?> calendar = new Calendar<>();
+        calendar.setLocale(Locale.GERMANY);
+        calendar.setZoneId(ZoneId.of("UTC"));
+        calendar.setVirtualizedView(true);
+
+        // a monday
+        ZonedDateTime start = ZonedDateTime.of(2026, 1, 5, 0, 0, 0, 0, ZoneId.of("UTC"));
+        calendar.setStartDate(start);
+        calendar.setEndDate(start.plusWeeks(12).minusDays(1));
+
+        calendar.scrollWeeks(-1);
+        Assert.assertEquals(start, calendar.getExpandedStartDate());
+
+        calendar.scrollWeeks(100);
+        Assert.assertEquals(start.plusWeeks(6), calendar.getExpandedStartDate());
+
+        // scrolling back works right away at the end of the range
+        calendar.scrollWeeks(-1);
+        Assert.assertEquals(start.plusWeeks(5), calendar.getExpandedStartDate());
+    }
+}
@@ -0,0 +1,56 @@
+package org.vaadin.addon.calendar.client.ui.schedule;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.vaadin.addon.calendar.client.CalendarState;
+
+/**
+ * Test for the deprecated styled slots of a day
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+@SuppressWarnings("deprecation")
+public class CalendarDayTest {
+
+    private static final long HALF_HOUR = 30 * 60 * 1000;
+
+    @Test
+    public void slotStylesAreConvertedToTimeBlocks() {
+
+        CalendarState.SlotStyle morning = new CalendarState.SlotStyle();
+        morning.slotStart = 16 * HALF_HOUR;
+        morning.styleName = "morning";
+
+        CalendarState.SlotStyle outside = new CalendarState.SlotStyle();
+        outside.slotStart = 48 * 64 * HALF_HOUR;
+        outside.styleName = "outside";
+
+        CalendarDay day = new CalendarDay(new Date(0), "", 1, 1, 1970, Arrays.asList(morning, outside));
+
+        Assert.assertEquals("morning", day.getTimeBlockStyle(16));
+        Assert.assertNull(day.getTimeBlockStyle(17));
+        Assert.assertEquals(1, day.getStyledSlots().size());
+        Assert.assertEquals("morning", day.getStyledSlots().get(16 * HALF_HOUR).style);
+    }
+
+    @Test
+    public void styledSlotsAreConvertedToTimeBlocks() {
+
+        Map<Long, CalTimeSlot> slots = new HashMap<>();
+        slots.put(0L, new CalTimeSlot(0, "night"));
+        slots.put(47 * HALF_HOUR, new CalTimeSlot(47 * HALF_HOUR, "night"));
+
+        CalendarDay day = CalendarDay.fromStyledSlots(new Date(0), slots);
+
+        Assert.assertEquals("night", day.getTimeBlockStyle(0));
+        Assert.assertEquals("night", day.getTimeBlockStyle(47));
+        Assert.assertNull(day.getTimeBlockStyle(1));
+        Assert.assertEquals(slots.keySet(), day.getStyledSlots().keySet());
+    }
+}
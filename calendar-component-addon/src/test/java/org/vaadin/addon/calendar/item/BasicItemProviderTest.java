@@ -0,0 +1,73 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.vaadin.addon.calendar.item.CalendarItemProvider.ItemSetChangedEvent;
+import org.vaadin.addon.calendar.item.CalendarItemProvider.ItemSetChangedEvent.ChangeType;
+
+/**
+ * Test for the change events of the basic item provider
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class BasicItemProviderTest {
+
+    private static final ZonedDateTime BASE = ZonedDateTime.of(2026, 1, 5, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Test
+    public void batchFiresOneEvent() {
+
+        BasicItemProvider<BasicItem> provider = new BasicItemProvider<>();
+        List<ItemSetChangedEvent> events = new ArrayList<>();
+        provider.addItemSetChangedListener(events::add);
+
+        provider.batch(() -> {
+            for (int i = 0; i < 10; i++) {
+                provider.addItem(new BasicItem("item " + i, null, BASE.plusDays(i)));
+            }
+        });
+
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(ChangeType.ADDED, events.get(0).getChangeType());
+        Assert.assertEquals(10, events.get(0).getItems().size());
+
+        BasicItem item = provider.getItems(BASE, BASE.plusDays(1)).get(0);
+
+        events.clear();
+        item.batch(() -> {
+            item.setCaption("changed");
+            item.setStart(BASE.plusHours(1));
+            item.setEnd(BASE.plusHours(2));
+            item.setStyleName("color1");
+        });
+
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(ChangeType.CHANGED, events.get(0).getChangeType());
+
+        events.clear();
+        provider.batch(() -> {
+            provider.removeItem(item);
+            provider.addItem(new BasicItem("other", null, BASE));
+        });
+
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(ChangeType.RESET, events.get(0).getChangeType());
+
+        events.clear();
+        BasicItem added = new BasicItem("added", null, BASE);
+        provider.batch(() -> {
+            provider.addItem(added);
+            added.setCaption("changed");
+        });
+
+        Assert.assertEquals(1, events.size());
+        Assert.assertEquals(ChangeType.ADDED, events.get(0).getChangeType());
+        Assert.assertEquals(1, events.get(0).getItems().size());
+    }
+}
@@ -0,0 +1,111 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the caching item provider
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class CachingItemProviderTest {
+
+    // a monday
+    private static final ZonedDateTime BASE = ZonedDateTime.of(2026, 1, 5, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Test
+    public void cachesWeeksUntilChanged() {
+
+        BasicItemProvider<BasicItem> basic = new BasicItemProvider<>();
+        for (int i = 0; i < 60; i++) {
+            ZonedDateTime start = BASE.plusDays(i).plusHours(10);
+            basic.addItem(new BasicItem("item " + i, null, start, start.plusHours(30)));
+        }
+
+        AtomicInteger queries = new AtomicInteger();
+        CachingItemProvider<BasicItem> caching = new CachingItemProvider<>((start, end) -> {
+            queries.incrementAndGet();
+            return basic.getItems(start, end);
+        }, 4);
+
+        ZonedDateTime start = BASE.plusDays(9);
+        ZonedDateTime end = BASE.plusDays(20).minusSeconds(1);
+
+        assertSameItems(basic.getItems(start, end), caching.getItems(start, end));
+        Assert.assertEquals(1, queries.get());
+        Assert.assertEquals(2, caching.getMissCount());
+
+        assertSameItems(basic.getItems(start, end), caching.getItems(start, end));
+        Assert.assertEquals(1, queries.get());
+        Assert.assertEquals(2, caching.getHitCount());
+
+        // least recently used weeks are evicted
+        caching.getItems(BASE.plusWeeks(4), BASE.plusWeeks(7).minusSeconds(1));
+        Assert.assertEquals(4, caching.getCachedBucketCount());
+        caching.getItems(start, end);
+        Assert.assertEquals(3, queries.get());
+    }
+
+    @Test
+    public void invalidatedOnItemSetChange() {
+
+        BasicItemProvider<BasicItem> basic = new BasicItemProvider<>();
+        CachingItemProvider<BasicItem> caching = new CachingItemProvider<>(basic);
+
+        AtomicInteger events = new AtomicInteger();
+        caching.addItemSetChangedListener(event -> events.incrementAndGet());
+
+        ZonedDateTime end = BASE.plusDays(7).minusSeconds(1);
+        Assert.assertTrue(caching.getItems(BASE, end).isEmpty());
+
+        BasicItem item = new BasicItem("added", null, BASE.plusDays(2));
+        basic.addItem(item);
+
+        Assert.assertEquals(1, events.get());
+        Assert.assertEquals(1, caching.getItems(BASE, end).size());
+
+        item.setStart(BASE.plusDays(8));
+        item.setEnd(BASE.plusDays(8));
+        Assert.assertTrue(caching.getItems(BASE, end).isEmpty());
+    }
+
+    @Test
+    public void invalidatesOnlyAffectedWeeks() {
+
+        BasicItemProvider<BasicItem> basic = new BasicItemProvider<>();
+        BasicItem item = new BasicItem("item", null, BASE.plusDays(1));
+        basic.addItem(item);
+
+        AtomicInteger queries = new AtomicInteger();
+        CachingItemProvider<BasicItem> caching = new CachingItemProvider<>((start, end) -> {
+            queries.incrementAndGet();
+            return basic.getItems(start, end);
+        });
+        basic.addItemSetChangedListener(caching);
+
+        caching.getItems(BASE, BASE.plusWeeks(3).minusSeconds(1));
+        Assert.assertEquals(3, caching.getCachedBucketCount());
+
+        // moved from the first into the second week
+        item.setStart(BASE.plusDays(8));
+        item.setEnd(BASE.plusDays(8));
+        Assert.assertEquals(1, caching.getCachedBucketCount());
+
+        Assert.assertEquals(1, caching.getItems(BASE.plusWeeks(1), BASE.plusWeeks(2).minusSeconds(1)).size());
+        Assert.assertEquals(2, queries.get());
+    }
+
+    private void assertSameItems(List<BasicItem> expected, List<BasicItem> actual) {
+        Comparator<BasicItem> order = Comparator.comparing(BasicItem::getCaption);
+        expected.sort(order);
+        actual.sort(order);
+        Assert.assertEquals(expected, actual);
+    }
+}
@@ -0,0 +1,175 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.vaadin.addon.calendar.item.CalendarItemProvider.ItemSetChangedEvent;
+
+/**
+ * Test for the concurrent item provider
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class ConcurrentItemProviderTest {
+
+    private static final ZonedDateTime BASE = ZonedDateTime.of(2026, 1, 5, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Test
+    public void identityMembership() {
+
+        ConcurrentItemProvider<BasicItem> provider = new ConcurrentItemProvider<>();
+        AtomicInteger events = new AtomicInteger();
+        provider.addItemSetChangedListener(event -> events.incrementAndGet());
+
+        BasicItem item = new BasicItem("item", null, BASE);
+        BasicItem equal = new BasicItem("item", null, BASE);
+
+        provider.addItem(item);
+        provider.addItem(item);
+        Assert.assertTrue(provider.containsItem(item));
+        Assert.assertFalse(provider.containsItem(equal));
+        Assert.assertEquals(1, provider.getAllItems().size());
+
+        provider.removeItem(equal);
+        Assert.assertEquals(1, provider.getItems(BASE, BASE.plusDays(1)).size());
+
+        provider.batch(() -> {
+            item.setStart(BASE.plusDays(2));
+            item.setEnd(BASE.plusDays(2));
+            provider.addItem(equal);
+        });
+        Assert.assertEquals(2, events.get());
+        Assert.assertEquals(1, provider.getItems(BASE, BASE.plusDays(1)).size());
+        Assert.assertEquals(2, provider.getItems(BASE, BASE.plusDays(3)).size());
+    }
+
+    @Test
+    public void removalsInBatch() {
+
+        ConcurrentItemProvider<BasicItem> provider = new ConcurrentItemProvider<>();
+
+        List<BasicItem> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(new BasicItem("item " + i, null, BASE.plusHours(i)));
+        }
+        provider.setItems(items);
+
+        provider.batch(() -> {
+            for (int i = 0; i < 10; i += 2) {
+                provider.removeItem(items.get(i));
+            }
+            // queries still read the previous items
+            Assert.assertEquals(10, provider.getAllItems().size());
+            // removed and added again in the same batch
+            provider.addItem(items.get(4));
+        });
+
+        Assert.assertEquals(Arrays.asList(items.get(1), items.get(3), items.get(5), items.get(7), items.get(9), items.get(4)),
+                provider.getAllItems());
+        Assert.assertFalse(provider.containsItem(items.get(0)));
+        Assert.assertTrue(provider.containsItem(items.get(4)));
+        Assert.assertEquals(6, provider.getItems(BASE, BASE.plusDays(1)).size());
+    }
+
+    @Test
+    public void failedBatchPublishesItsChanges() {
+
+        ConcurrentItemProvider<BasicItem> provider = new ConcurrentItemProvider<>();
+        List<ItemSetChangedEvent.ChangeType> events = new ArrayList<>();
+        provider.addItemSetChangedListener(event -> events.add(event.getChangeType()));
+
+        BasicItem item = new BasicItem("item", null, BASE);
+        try {
+            provider.batch(() -> {
+                provider.addItem(item);
+                throw new IllegalStateException("failed");
+            });
+            Assert.fail("The exception was not thrown");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("failed", e.getMessage());
+        }
+
+        // the item is visible to queries, so the listeners are told
+        Assert.assertEquals(1, provider.getItems(BASE, BASE.plusDays(1)).size());
+        Assert.assertEquals(Collections.singletonList(ItemSetChangedEvent.ChangeType.ADDED), events);
+    }
+
+    @Test
+    public void concurrentReadsAndWrites() throws Exception {
+
+        ConcurrentItemProvider<BasicItem> provider = new ConcurrentItemProvider<>();
+        AtomicInteger events = new AtomicInteger();
+        provider.addItemSetChangedListener(event -> events.incrementAndGet());
+
+        int writers = 4;
+        int itemsPerWriter = 500;
+        AtomicBoolean writing = new AtomicBoolean(true);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 4);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < 4; r++) {
+                readers.add(executor.submit(() -> {
+                    int queries = 0;
+                    while (writing.get()) {
+                        for (BasicItem item : provider.getItems(BASE, BASE.plusDays(30))) {
+                            Assert.assertNotNull(item.getStart());
+                        }
+                        queries++;
+                    }
+                    return queries;
+                }));
+            }
+
+            List<Callable<Void>> tasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                tasks.add(() -> {
+                    for (int i = 0; i < itemsPerWriter; i++) {
+                        ZonedDateTime start = BASE.plusHours(i);
+                        BasicItem item = new BasicItem(writer + "-" + i, null, start, start.plusHours(1));
+                        provider.addItem(item);
+                        if (i % 2 == 1) {
+                            provider.removeItem(item);
+                        } else {
+                            item.setEnd(start.plusHours(2));
+                        }
+                    }
+                    return null;
+                });
+            }
+
+            for (Future<Void> task : executor.invokeAll(tasks)) {
+                task.get();
+            }
+            writing.set(false);
+
+            for (Future<Integer> reader : readers) {
+                Assert.assertTrue(reader.get() > 0);
+            }
+        } finally {
+            executor.shutdownNow();
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+        }
+
+        int remaining = writers * itemsPerWriter / 2;
+        Assert.assertEquals(remaining, provider.getAllItems().size());
+        Assert.assertEquals(remaining, provider.getItems(BASE, BASE.plusDays(30)).size());
+        // one event for each add, remove and change
+        Assert.assertEquals(writers * itemsPerWriter * 2, events.get());
+    }
+}
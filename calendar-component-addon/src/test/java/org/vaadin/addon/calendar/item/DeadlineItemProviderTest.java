@@ -0,0 +1,321 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the deadline of item queries
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class DeadlineItemProviderTest {
+
+    private static final ZonedDateTime BASE = ZonedDateTime.of(2026, 1, 5, 0, 0, 0, 0, ZoneId.of("UTC"));
+    private static final ZonedDateTime END = BASE.plusWeeks(1).minusNanos(1);
+
+    @Test
+    public void staleItemsAreReturnedAndRefreshed() throws Exception {
+
+        BasicItemProvider<BasicItem> basic = new BasicItemProvider<>();
+        basic.addItem(new BasicItem("first", null, BASE.plusHours(10)));
+
+        AtomicBoolean slow = new AtomicBoolean();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            DeadlineItemProvider<BasicItem> provider = new DeadlineItemProvider<>((start, end) -> {
+                if (slow.get()) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return basic.getItems(start, end);
+            }, Duration.ofMillis(100), executor);
+
+            CountDownLatch refreshed = new CountDownLatch(1);
+            provider.addItemSetChangedListener(event -> {
+                Assert.assertEquals(2, event.getItems().size());
+                refreshed.countDown();
+            });
+
+            Assert.assertEquals(1, provider.getItems(BASE, END).size());
+            Assert.assertFalse(provider.isStale(BASE, END));
+
+            slow.set(true);
+            basic.addItem(new BasicItem("second", null, BASE.plusHours(12)));
+
+            Assert.assertEquals(1, provider.getItems(BASE, END).size());
+            Assert.assertTrue(provider.isStale(BASE, END));
+            // only the queried range is stale
+            Assert.assertFalse(provider.isStale(BASE.plusDays(2), BASE.plusDays(3)));
+            Assert.assertEquals(1, provider.getTimeoutCount());
+            Assert.assertEquals(1, provider.getStaleCount());
+
+            release.countDown();
+            Assert.assertTrue(refreshed.await(5, TimeUnit.SECONDS));
+            Assert.assertFalse(provider.isStale(BASE, END));
+            Assert.assertEquals(2, provider.getItems(BASE, END).size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void repeatedFailuresOpenTheBreaker() {
+
+        AtomicInteger queries = new AtomicInteger();
+        DeadlineItemProvider<BasicItem> provider = new DeadlineItemProvider<>((start, end) -> {
+            queries.incrementAndGet();
+            throw new IllegalStateException("backend down");
+        }, Duration.ofSeconds(5), Runnable::run);
+        provider.setFailureThreshold(2);
+
+        Assert.assertTrue(provider.getItems(BASE, END).isEmpty());
+        Assert.assertTrue(provider.getItems(BASE, END).isEmpty());
+        Assert.assertTrue(provider.isBreakerOpen());
+        Assert.assertTrue(provider.isStale(BASE, END));
+
+        Assert.assertTrue(provider.getItems(BASE, END).isEmpty());
+        Assert.assertEquals(2, queries.get());
+        Assert.assertEquals(2, provider.getErrorCount());
+        Assert.assertEquals(1, provider.getRejectedCount());
+
+        // a single query is allowed after the open duration
+        provider.setOpenDuration(Duration.ZERO);
+        provider.getItems(BASE, END);
+        Assert.assertEquals(3, queries.get());
+    }
+
+    @Test
+    public void failedRefreshIsRetried() throws Exception {
+
+        BasicItemProvider<BasicItem> basic = new BasicItemProvider<>();
+        basic.addItem(new BasicItem("first", null, BASE.plusHours(10)));
+
+        AtomicBoolean failing = new AtomicBoolean();
+        CountDownLatch release = new CountDownLatch(1);
+
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+        try {
+            DeadlineItemProvider<BasicItem> provider = new DeadlineItemProvider<>((start, end) -> {
+                if (failing.get()) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    throw new IllegalStateException("backend down");
+                }
+                return basic.getItems(start, end);
+            }, Duration.ofMillis(50), executor);
+            provider.setRetryDelay(Duration.ofMillis(50));
+
+            CountDownLatch retried = new CountDownLatch(1);
+            provider.addItemSetChangedListener(event -> {
+                Assert.assertEquals(1, event.getItems().size());
+                retried.countDown();
+            });
+
+            Assert.assertEquals(1, provider.getItems(BASE, END).size());
+
+            failing.set(true);
+            Assert.assertEquals(1, provider.getItems(BASE, END).size());
+            Assert.assertTrue(provider.isStale(BASE, END));
+
+            // the late query fails, the calendars are told to query again
+            release.countDown();
+            Assert.assertTrue(retried.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(provider.isStale(BASE, END));
+
+            failing.set(false);
+            Assert.assertEquals(1, provider.getItems(BASE, END).size());
+            Assert.assertFalse(provider.isStale(BASE, END));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void staleRangesAreRetriedWhenTheBreakerCloses() throws Exception {
+
+        AtomicBoolean failing = new AtomicBoolean(true);
+        AtomicInteger queries = new AtomicInteger();
+
+        ScheduledExecutorService executor = Executors.newScheduledThreadPool(2);
+        try {
+            DeadlineItemProvider<BasicItem> provider = new DeadlineItemProvider<>((start, end) -> {
+                queries.incrementAndGet();
+                if (failing.get()) {
+                    throw new IllegalStateException("backend down");
+                }
+                return Collections.singletonList(new BasicItem("item", null, start));
+            }, Duration.ofSeconds(5), executor);
+            provider.setFailureThreshold(1);
+            provider.setOpenDuration(Duration.ofMillis(200));
+            provider.setRetryDelay(Duration.ZERO);
+
+            ZonedDateTime nextWeek = BASE.plusWeeks(1);
+            ZonedDateTime nextEnd = END.plusWeeks(1);
+
+            Assert.assertTrue(provider.getItems(BASE, END).isEmpty());
+            Assert.assertTrue(provider.getItems(nextWeek, nextEnd).isEmpty());
+            Assert.assertTrue(provider.isBreakerOpen());
+            Assert.assertEquals(1, provider.getRejectedCount());
+            Assert.assertEquals(1, queries.get());
+
+            // a calendar queries again on each change
+            CountDownLatch fresh = new CountDownLatch(2);
+            failing.set(false);
+            provider.addItemSetChangedListener(event -> {
+                for (List<ZonedDateTime> range : Arrays.asList(Arrays.asList(BASE, END), Arrays.asList(nextWeek, nextEnd))) {
+                    if (provider.isStale(range.get(0), range.get(1))
+                            && !provider.getItems(range.get(0), range.get(1)).isEmpty()) {
+                        fresh.countDown();
+                    }
+                }
+            });
+
+            // nothing is queried before the breaker closes
+            Thread.sleep(100);
+            Assert.assertEquals(1, queries.get());
+
+            Assert.assertTrue(fresh.await(5, TimeUnit.SECONDS));
+            Assert.assertFalse(provider.isBreakerOpen());
+            Assert.assertFalse(provider.isStale(BASE, END));
+            Assert.assertFalse(provider.isStale(nextWeek, nextEnd));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void lateQueriesDoNotWaitAgain() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            DeadlineItemProvider<BasicItem> provider = new DeadlineItemProvider<>((start, end) -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Collections.emptyList();
+            }, Duration.ofMillis(200), executor);
+
+            // a calendar with lazy item loading queries each day of the week
+            long started = System.nanoTime();
+            for (int day = 0; day < 7; day++) {
+                provider.getItems(BASE.plusDays(day).plusHours(8), BASE.plusDays(day).plusHours(18));
+            }
+            long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+            Assert.assertTrue("Waited " + waited + " ms", waited < 1000);
+            Assert.assertEquals(1, provider.getTimeoutCount());
+            Assert.assertFalse(provider.isBreakerOpen());
+            for (int day = 0; day < 7; day++) {
+                Assert.assertTrue(provider.isStale(BASE.plusDays(day).plusHours(8), BASE.plusDays(day).plusHours(18)));
+            }
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void hungBackendOpensTheBreaker() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        ExecutorService sessions = Executors.newFixedThreadPool(3);
+        try {
+            DeadlineItemProvider<BasicItem> provider = new DeadlineItemProvider<>((start, end) -> {
+                queries.incrementAndGet();
+                try {
+                    // never returns
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Collections.emptyList();
+            }, Duration.ofMillis(100), executor);
+            provider.setFailureThreshold(3);
+
+            // the sessions query other ranges at the same time, each waits
+            List<Future<?>> requests = new ArrayList<>();
+            for (int week = 0; week < 3; week++) {
+                ZonedDateTime start = BASE.plusWeeks(week);
+                requests.add(sessions.submit(() -> provider.getItems(start, start.plusWeeks(1))));
+            }
+            for (Future<?> request : requests) {
+                request.get();
+            }
+
+            Assert.assertEquals(3, provider.getTimeoutCount());
+            Assert.assertTrue(provider.isBreakerOpen());
+
+            // no more queries are sent to the hung backend
+            Assert.assertTrue(provider.getItems(BASE.plusWeeks(5), BASE.plusWeeks(6)).isEmpty());
+            Assert.assertEquals(1, provider.getRejectedCount());
+            Assert.assertEquals(3, queries.get());
+        } finally {
+            release.countDown();
+            sessions.shutdownNow();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void timeoutsAreCountedPerRequest() throws Exception {
+
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            DeadlineItemProvider<BasicItem> provider = new DeadlineItemProvider<>((start, end) -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Collections.emptyList();
+            }, Duration.ofMillis(50), executor);
+            provider.setFailureThreshold(2);
+
+            provider.getItems(BASE, END);
+            Assert.assertEquals(1, provider.getTimeoutCount());
+
+            // the next request of the thread waits again
+            Thread.sleep(100);
+            provider.getItems(BASE.plusWeeks(1), END.plusWeeks(1));
+            Assert.assertEquals(2, provider.getTimeoutCount());
+            Assert.assertTrue(provider.isBreakerOpen());
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
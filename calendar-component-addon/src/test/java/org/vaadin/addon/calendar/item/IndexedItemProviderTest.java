@@ -0,0 +1,74 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the indexed item provider
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class IndexedItemProviderTest {
+
+    private static final ZonedDateTime BASE = ZonedDateTime.of(2026, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Test
+    public void sameItemsAsBasicProvider() {
+
+        Random random = new Random(42);
+
+        BasicItemProvider<BasicItem> basic = new BasicItemProvider<>();
+        IndexedItemProvider<BasicItem> indexed = new IndexedItemProvider<>();
+
+        List<BasicItem> items = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            ZonedDateTime start = BASE.plusMinutes(random.nextInt(60 * 24 * 120));
+            items.add(new BasicItem("item " + i, null, start, start.plusMinutes(random.nextInt(60 * 24 * 3))));
+        }
+
+        basic.setItems(items);
+        indexed.setItems(items);
+
+        for (int i = 0; i < 200; i++) {
+            assertSameItems(basic, indexed, random);
+        }
+
+        // the index follows changes
+        BasicItem moved = items.get(0);
+        moved.setStart(BASE.minusDays(10));
+        moved.setEnd(BASE.minusDays(9));
+        Assert.assertTrue(indexed.getItems(BASE.minusDays(11), BASE.minusDays(10)).contains(moved));
+
+        indexed.removeItem(moved);
+        Assert.assertTrue(indexed.getItems(BASE.minusDays(11), BASE.minusDays(10)).isEmpty());
+
+        BasicItem added = new BasicItem("added", null, BASE.minusDays(20));
+        indexed.addItem(added);
+        Assert.assertEquals(Collections.singletonList(added), indexed.getItems(BASE.minusDays(21), BASE.minusDays(19)));
+    }
+
+    private void assertSameItems(BasicItemProvider<BasicItem> basic, IndexedItemProvider<BasicItem> indexed, Random random) {
+
+        ZonedDateTime start = BASE.plusMinutes(random.nextInt(60 * 24 * 130));
+        ZonedDateTime end = start.plusMinutes(random.nextInt(60 * 24 * 40));
+
+        List<BasicItem> expected = new ArrayList<>(basic.getItems(start, end));
+        List<BasicItem> actual = new ArrayList<>(indexed.getItems(start, end));
+
+        Comparator<BasicItem> order = Comparator.comparing(BasicItem::getCaption);
+        expected.sort(order);
+        actual.sort(order);
+
+        Assert.assertEquals("Index query differs from scan", expected, actual);
+    }
+
+}
@@ -0,0 +1,74 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the routing of changes to the affected ranges
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class LiveItemProviderTest {
+
+    private static final ZonedDateTime BASE = ZonedDateTime.of(2026, 1, 5, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Test
+    public void changesAreRoutedToOverlappingRanges() {
+
+        ConcurrentItemProvider<BasicItem> items = new ConcurrentItemProvider<>();
+        LiveItemProvider<BasicItem> provider = new LiveItemProvider<>(items);
+
+        AtomicInteger firstWeek = new AtomicInteger();
+        AtomicInteger secondWeek = new AtomicInteger();
+        AtomicInteger all = new AtomicInteger();
+
+        LiveItemProvider<BasicItem>.Subscription first = provider.subscribe(event -> {
+            Assert.assertSame(provider, event.getProvider());
+            firstWeek.incrementAndGet();
+        });
+        first.setRange(BASE, BASE.plusDays(7).minusNanos(1), Collections.emptyList());
+
+        LiveItemProvider<BasicItem>.Subscription second = provider.subscribe(event -> secondWeek.incrementAndGet());
+        second.setRange(BASE.plusDays(7), BASE.plusDays(14).minusNanos(1), Collections.emptyList());
+
+        provider.addItemSetChangedListener(event -> all.incrementAndGet());
+
+        BasicItem item = new BasicItem("item", null, BASE.plusDays(1));
+        items.addItem(item);
+        Assert.assertEquals(1, firstWeek.get());
+        Assert.assertEquals(0, secondWeek.get());
+        Assert.assertEquals(1, provider.getDeliveredCount());
+        Assert.assertEquals(1, provider.getSkippedCount());
+
+        // the first range still shows the item, which moves to the second
+        first.setRange(first.getStartDate(), first.getEndDate(), provider.getItems(first.getStartDate(), first.getEndDate()));
+        items.batch(() -> {
+            item.setStart(BASE.plusDays(8));
+            item.setEnd(BASE.plusDays(8));
+        });
+        Assert.assertEquals(2, firstWeek.get());
+        Assert.assertEquals(1, secondWeek.get());
+
+        // a new range is subscribed before it is queried, the shown item is kept
+        first.setRange(BASE.plusDays(14), BASE.plusDays(21).minusNanos(1));
+        items.addItem(new BasicItem("next", null, BASE.plusDays(15)));
+        Assert.assertEquals(3, firstWeek.get());
+        item.setDescription("changed");
+        Assert.assertEquals(4, firstWeek.get());
+        Assert.assertEquals(2, secondWeek.get());
+        first.setRange(first.getStartDate(), first.getEndDate(), Collections.emptyList());
+
+        second.remove();
+        items.removeItem(item);
+        Assert.assertEquals(2, secondWeek.get());
+        Assert.assertEquals(4, firstWeek.get());
+        Assert.assertEquals(1, provider.getSubscriptionCount());
+        Assert.assertEquals(5, all.get());
+    }
+}
@@ -0,0 +1,127 @@
+package org.vaadin.addon.calendar.item;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Test for the merging of concurrent queries
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class SingleFlightItemProviderTest {
+
+    private static final ZonedDateTime BASE = ZonedDateTime.of(2026, 1, 5, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    @Test
+    public void containedQueriesShareOneLoad() throws Exception {
+
+        BasicItemProvider<BasicItem> basic = new BasicItemProvider<>();
+        for (int i = 0; i < 14; i++) {
+            basic.addItem(new BasicItem("item " + i, null, BASE.plusDays(i).plusHours(10)));
+        }
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger queries = new AtomicInteger();
+
+        SingleFlightItemProvider<BasicItem> provider = new SingleFlightItemProvider<>((start, end) -> {
+            queries.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return basic.getItems(start, end);
+        });
+
+        ZonedDateTime end = BASE.plusWeeks(2).minusNanos(1);
+        ZonedDateTime secondWeek = BASE.plusWeeks(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<List<BasicItem>> leader = executor.submit(() -> provider.getItems(BASE, end));
+            Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            Future<List<BasicItem>> same = executor.submit(() -> provider.getItems(BASE, end));
+            Future<List<BasicItem>> contained = executor.submit(() -> provider.getItems(secondWeek, end));
+
+            // both queries wait for the running one
+            while (provider.getHitCount() < 2) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            Assert.assertEquals(14, leader.get().size());
+            Assert.assertEquals(14, same.get().size());
+            Assert.assertEquals(7, contained.get().size());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(1, queries.get());
+        Assert.assertEquals(1, provider.getLoadCount());
+        Assert.assertEquals(1, provider.getStatistics(BASE, end).getLoadCount());
+        Assert.assertEquals(1, provider.getStatistics(BASE, end).getHitCount());
+        Assert.assertEquals(1, provider.getStatistics(secondWeek, end).getHitCount());
+
+        // queries after the load completed load again
+        Assert.assertEquals(7, provider.getItems(secondWeek, end).size());
+        Assert.assertEquals(2, queries.get());
+    }
+
+    @Test
+    public void errorsAreSharedWithWaitingQueries() throws Exception {
+
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        SingleFlightItemProvider<BasicItem> provider = new SingleFlightItemProvider<>((start, end) -> {
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new Error("out of resources");
+        });
+
+        ZonedDateTime end = BASE.plusWeeks(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<BasicItem>> leader = executor.submit(() -> provider.getItems(BASE, end));
+            Assert.assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            Future<List<BasicItem>> waiter = executor.submit(() -> provider.getItems(BASE, end));
+            while (provider.getHitCount() < 1) {
+                Thread.sleep(1);
+            }
+            release.countDown();
+
+            for (Future<List<BasicItem>> query : Arrays.asList(leader, waiter)) {
+                try {
+                    query.get(5, TimeUnit.SECONDS);
+                    Assert.fail("The error was not thrown");
+                } catch (ExecutionException e) {
+                    Assert.assertEquals("out of resources", e.getCause().getMessage());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
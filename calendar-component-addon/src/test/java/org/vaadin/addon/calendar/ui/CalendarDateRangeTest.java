@@ -0,0 +1,60 @@
+package org.vaadin.addon.calendar.ui;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.event.Action;
+
+/**
+ * Test for the equality of date ranges
+ *
+ * @author guettler
+ * @since 17.10.26
+ */
+public class CalendarDateRangeTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2026, 3, 16, 10, 0, 0, 0, ZoneId.of("Europe/Berlin"));
+
+    @Test
+    public void rangesWithSameInstantsAreEqual() {
+
+        CalendarDateRange range = new CalendarDateRange(START, START.plusMinutes(30));
+        CalendarDateRange utc = new CalendarDateRange(START.withZoneSameInstant(ZoneId.of("UTC")),
+                START.plusMinutes(30).withZoneSameInstant(ZoneId.of("UTC")));
+
+        Assert.assertEquals(range, utc);
+        Assert.assertEquals(range.hashCode(), utc.hashCode());
+        Assert.assertNotEquals(range, new CalendarDateRange(START, START.plusMinutes(60)));
+    }
+
+    @SuppressWarnings("serial")
+    @Test
+    public void batchHandlerMayReturnNewRanges() {
+
+        Action action = new Action("Add");
+
+        CalendarActionBatchHandler handler = new CalendarActionBatchHandler() {
+
+            @Override
+            public Map<CalendarDateRange, Action[]> getActions(List<CalendarDateRange> ranges, Object sender) {
+                // keys built from stored data, not the given ranges
+                Map<CalendarDateRange, Action[]> actions = new HashMap<>();
+                actions.put(new CalendarDateRange(START, START.plusMinutes(30)), new Action[] { action });
+                return actions;
+            }
+
+            @Override
+            public void handleAction(Action action, Object sender, Object target) {
+            }
+        };
+
+        Action[] actions = handler.getActions(new CalendarDateRange(START, START.plusMinutes(30)), null);
+        Assert.assertArrayEquals(new Action[] { action }, actions);
+    }
+}